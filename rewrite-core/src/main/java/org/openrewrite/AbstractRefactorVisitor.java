@@ -15,6 +15,7 @@
  */
 package org.openrewrite;
 
+import org.openrewrite.internal.PersistentList;
 import org.openrewrite.internal.lang.Nullable;
 
 import java.util.ArrayList;
@@ -24,6 +25,8 @@ import java.util.function.Function;
 public class AbstractRefactorVisitor<T extends Tree> extends AbstractSourceVisitor<T> implements RefactorVisitor<T> {
     private final ThreadLocal<List<RefactorVisitor<? extends T>>> andThen = new ThreadLocal<>();
 
+    private final ThreadLocal<Boolean> descending = ThreadLocal.withInitial(() -> true);
+
     public AbstractRefactorVisitor() {
         andThen.set(new ArrayList<>());
     }
@@ -53,25 +56,48 @@ public class AbstractRefactorVisitor<T extends Tree> extends AbstractSourceVisit
 
     @SuppressWarnings("unchecked")
     protected <T1 extends Tree> T1 refactor(@Nullable Tree tree) {
+        if (!descending.get()) {
+            return (T1) tree;
+        }
         return (T1) visit(tree);
     }
 
+    /**
+     * Apply this visitor to a single tree element, leaving its children as they are. Several visitors can be
+     * fused into a single traversal by having one visitor walk the tree and apply the others to each element
+     * on its way back up.
+     *
+     * @param tree   The tree element to refactor.
+     * @param parent The cursor of the tree element's parent, if any.
+     * @return The refactored tree element.
+     */
+    public T visitWithoutDescending(Tree tree, @Nullable Cursor parent) {
+        boolean wasDescending = descending.get();
+        descending.set(false);
+        try {
+            return visit(tree, parent);
+        } finally {
+            descending.set(wasDescending);
+        }
+    }
+
     protected <T1 extends Tree> List<T1> refactor(@Nullable List<T1> trees) {
         if(trees == null) {
             return null;
         }
 
-        List<T1> mutatedTrees = new ArrayList<>(trees.size());
-        boolean changed = false;
+        // only the elements that change are replaced, and the rest of the list is shared with the original
+        PersistentList<T1> mutatedTrees = null;
+        int i = 0;
         for (T1 tree : trees) {
             T1 mutated = refactor(tree);
             if(mutated != tree) {
-                changed = true;
+                mutatedTrees = (mutatedTrees == null ? PersistentList.from(trees) : mutatedTrees).with(i, mutated);
             }
-            mutatedTrees.add(mutated);
+            i++;
         }
 
-        return changed ? mutatedTrees : trees;
+        return mutatedTrees == null ? trees : mutatedTrees;
     }
 
     public void next() {
@@ -26,12 +26,24 @@ public abstract class AbstractSourceVisitor<R> implements SourceVisitor<R> {
 
     private boolean cursored = IS_DEBUGGING;
 
-    private final ThreadLocal<Cursor> cursor = new ThreadLocal<>();
+    private boolean budgeted = true;
+
+    private final ThreadLocal<CursorStack> cursor = ThreadLocal.withInitial(CursorStack::new);
 
     protected void setCursoringOn() {
         this.cursored = true;
     }
 
+    /**
+     * Don't count the trees this visitor visits against the budget of the refactoring visitor it runs on behalf of.
+     * Printers turn budgeting off, since printing a tree always finishes, and a source printed to report or compare
+     * it shouldn't use up the budget for changing it. Other visitors that a refactoring visitor runs, like searches,
+     * are part of its work on the source and count against its budget.
+     */
+    protected void setBudgetingOff() {
+        this.budgeted = false;
+    }
+
     protected final R visitAfter(R r, @Nullable Tree tree) {
         return tree == null ? r : reduce(r, visit(tree));
     }
@@ -40,30 +52,78 @@ public abstract class AbstractSourceVisitor<R> implements SourceVisitor<R> {
         return reduce(r, visit(trees));
     }
 
+    /**
+     * Don't visit the children of the tree currently being visited. Call this from a visit method before
+     * calling the default implementation of it, which then only visits the tree itself.
+     */
+    protected void skipChildren() {
+        cursor.get().skipChildren();
+    }
+
+    /**
+     * Don't visit any more trees in the current visit. Use this once a search knows its answer. Trees
+     * that are not visited contribute {@link #defaultTo(Tree)} to the result of the visit.
+     */
+    protected void stopVisiting() {
+        cursor.get().stop();
+    }
+
     @Override
     public Cursor getCursor() {
-        if (cursor.get() == null) {
+        Cursor c = cursored ? cursor.get().peek() : null;
+        if (c == null) {
             throw new IllegalStateException("Cursoring is not enabled for this visitor. " +
                     "Call setCursoringOn() in the visitor's constructor to enable.");
         }
-        return cursor.get();
+        return c;
     }
 
-    public final R visit(@Nullable Tree tree) {
+    /**
+     * Visit a tree as if it had been reached by way of a particular parent.
+     *
+     * @param tree   The tree to visit.
+     * @param parent The cursor of the tree's parent, if any.
+     * @return The result of visiting the tree.
+     */
+    protected R visit(@Nullable Tree tree, @Nullable Cursor parent) {
+        if (!cursored) {
+            return visit(tree);
+        }
+
+        CursorStack stack = cursor.get();
+        stack.push(parent);
+        try {
+            return visit(tree);
+        } finally {
+            stack.pop();
+        }
+    }
+
+    /**
+     * Visit a tree. Subclasses that override this must delegate to it to reach the tree.
+     *
+     * @param tree The tree to visit.
+     * @return The result of visiting the tree.
+     */
+    public R visit(@Nullable Tree tree) {
         if (tree == null) {
             return defaultTo(null);
         }
 
-        if (cursored) {
-            cursor.set(new Cursor(cursor.get(), tree));
+        CursorStack stack = cursor.get();
+        if (stack.isPruned()) {
+            return defaultTo(tree);
         }
 
-        R t = reduce(tree.accept(this), visitTree(tree));
-
-        if (cursored) {
-            cursor.set(cursor.get().getParent());
+        if (budgeted) {
+            VisitBudget.charge();
         }
 
-        return t;
+        stack.push(tree);
+        try {
+            return reduce(tree.accept(this), visitTree(tree));
+        } finally {
+            stack.pop();
+        }
     }
 }
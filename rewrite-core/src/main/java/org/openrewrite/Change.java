@@ -16,13 +16,12 @@
 package org.openrewrite;
 
 import lombok.Getter;
-import org.eclipse.jgit.diff.DiffEntry;
-import org.eclipse.jgit.diff.DiffFormatter;
-import org.eclipse.jgit.internal.storage.dfs.DfsRepositoryDescription;
-import org.eclipse.jgit.internal.storage.dfs.InMemoryRepository;
+import org.eclipse.jgit.diff.*;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.FileMode;
 import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.util.QuotedString;
+import org.openrewrite.internal.OriginalSource;
 import org.openrewrite.internal.lang.Nullable;
 
 import java.io.ByteArrayOutputStream;
@@ -30,10 +29,16 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.joining;
 
 public class Change {
     /**
@@ -71,80 +76,322 @@ public class Change {
      * @return Git-style patch diff representing the changes to this compilation unit
      */
     public String diff(@Nullable Path relativeTo) {
+        return diff(relativeTo, null);
+    }
+
+    /**
+     * Compare only the regions of the original and fixed source files that lie between the trees they share.
+     * Every line inside a shared tree is the same in both, so these lines are paired up front and the line
+     * diff runs on what is left between them. For a large source file with a small change this does a
+     * fraction of the work of comparing the whole of both files.
+     * <p>
+     * A shared tree whose first or last line is repeated right beside it doesn't split the comparison, since
+     * comparing the whole files is free to pair either of the repeated lines. The region around such a tree
+     * is compared in full, so a tree that is removed or added next to an identical one is reported as
+     * {@link #diff(Path)} reports it. Each region left between shared trees is compared with the same
+     * histogram diff as {@link #diff(Path)} uses; only where lines changed on both sides of a shared tree
+     * repeat one another can it pair them differently.
+     *
+     * @param relativeTo     Optional relative path that is used to relativize file paths of reported differences.
+     * @param originalSource The original source retained when the original source file was parsed. When it
+     *                       is {@code null} or doesn't retain the original source file, the whole of both
+     *                       files is compared, as {@link #diff(Path)} does.
+     * @return Git-style patch diff representing the changes to this compilation unit
+     */
+    public String diff(@Nullable Path relativeTo, @Nullable OriginalSource originalSource) {
         // FIXME fix source path when deleting files
         Path sourcePath = fixed instanceof SourceFile ?
                 Paths.get(((SourceFile) fixed).getSourcePath()) :
                 (relativeTo == null ? Paths.get(".") : relativeTo).resolve("partial-" + fixed.getId());
 
+        OriginalSource.Alignment alignment = original == null || originalSource == null ?
+                null :
+                originalSource.align(original, fixed);
+        if (alignment != null) {
+            return new InMemoryDiffEntry(sourcePath, relativeTo, alignment, rulesThatMadeChanges).getDiff();
+        }
+
         return new InMemoryDiffEntry(sourcePath, relativeTo,
                 original == null ? "" : original.print(), fixed.print(), rulesThatMadeChanges).getDiff();
     }
 
+    /**
+     * @param changes    A change set, such as the one produced by {@link Refactor#fix(Iterable)}.
+     * @param relativeTo Optional relative path that is used to relativize file paths of reported differences.
+     * @return A single Git-style patch covering every change in the change set, in change set order.
+     */
+    public static String diff(Collection<Change> changes, @Nullable Path relativeTo) {
+        StringBuilder patch = new StringBuilder();
+        diff(changes, relativeTo, null, patch);
+        return patch.toString();
+    }
+
+    /**
+     * Write a single Git-style patch covering every change in the change set. Each file's patch is written
+     * to {@code out} as soon as it and every file's patch before it is ready. At most twice as many files as
+     * there are processors are diffed ahead of the next one to be written, so the combined patch is never
+     * held in memory as a whole.
+     *
+     * @param changes    A change set, such as the one produced by {@link Refactor#fix(Iterable)}.
+     * @param relativeTo Optional relative path that is used to relativize file paths of reported differences.
+     * @param executor   The executor to diff files on, or {@code null} to diff them sequentially on the
+     *                   calling thread. Either way, the patch lists files in change set order.
+     * @param out        Where the patch is written.
+     */
+    public static void diff(Collection<Change> changes, @Nullable Path relativeTo, @Nullable Executor executor,
+                            Appendable out) {
+        try {
+            if (executor == null) {
+                for (Change change : changes) {
+                    out.append(change.diff(relativeTo));
+                }
+                return;
+            }
+
+            int maxInFlight = Runtime.getRuntime().availableProcessors() * 2;
+            Deque<CompletableFuture<String>> inFlight = new ArrayDeque<>(maxInFlight);
+            for (Change change : changes) {
+                if (inFlight.size() == maxInFlight) {
+                    out.append(inFlight.removeFirst().join());
+                }
+                inFlight.addLast(CompletableFuture.supplyAsync(() -> change.diff(relativeTo), executor));
+            }
+
+            while (!inFlight.isEmpty()) {
+                out.append(inFlight.removeFirst().join());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     public Class<? extends Tree> getTreeType() {
         return original == null ?
                 (fixed == null ? null : fixed.getClass()) :
                 original.getClass();
     }
 
-    static class InMemoryDiffEntry extends DiffEntry {
-        InMemoryRepository repo;
-        Set<String> rulesThatMadeChanges;
+    /**
+     * Formats the patch for one file straight from the printed sources, producing the same output as
+     * {@code git diff} would for a modified file without needing a repository to hold the two blobs.
+     */
+    static class InMemoryDiffEntry {
+        /**
+         * Stateless, so one instance diffs every file, whichever thread it is on.
+         */
+        private static final DiffAlgorithm DIFF_ALGORITHM =
+                DiffAlgorithm.getAlgorithm(DiffAlgorithm.SupportedAlgorithm.HISTOGRAM);
+
+        private static final int ABBREVIATION_LENGTH = 7;
+
+        private final String path;
+        private final String oldSource;
+        private final String newSource;
+        private final Set<String> rulesThatMadeChanges;
+
+        @Nullable
+        private final OriginalSource.Alignment alignment;
 
         InMemoryDiffEntry(Path filePath, @Nullable Path relativeTo, String oldSource, String newSource, Set<String> rulesThatMadeChanges) {
-            this.changeType = ChangeType.MODIFY;
-            this.rulesThatMadeChanges = rulesThatMadeChanges;
+            this(filePath, relativeTo, oldSource, newSource, null, rulesThatMadeChanges);
+        }
 
-            Path relativePath = relativeTo == null ? filePath : relativeTo.relativize(filePath);
-            this.oldPath = relativePath.toString();
-            this.newPath = relativePath.toString();
+        InMemoryDiffEntry(Path filePath, @Nullable Path relativeTo, OriginalSource.Alignment alignment, Set<String> rulesThatMadeChanges) {
+            this(filePath, relativeTo, alignment.getOriginal(), alignment.getFixed(), alignment, rulesThatMadeChanges);
+        }
 
-            try {
-                this.repo = new InMemoryRepository.Builder()
-                        .setRepositoryDescription(new DfsRepositoryDescription())
-                        .build();
-
-                ObjectInserter inserter = repo.getObjectDatabase().newInserter();
-                oldId = inserter.insert(Constants.OBJ_BLOB, oldSource.getBytes()).abbreviate(40);
-                newId = inserter.insert(Constants.OBJ_BLOB, newSource.getBytes()).abbreviate(40);
-                inserter.flush();
-
-                oldMode = FileMode.REGULAR_FILE;
-                newMode = FileMode.REGULAR_FILE;
-                repo.close();
-            } catch (IOException e) {
-                throw new UncheckedIOException(e);
-            }
+        private InMemoryDiffEntry(Path filePath, @Nullable Path relativeTo, String oldSource, String newSource,
+                                  @Nullable OriginalSource.Alignment alignment, Set<String> rulesThatMadeChanges) {
+            Path relativePath = relativeTo == null ? filePath : relativeTo.relativize(filePath);
+            this.path = relativePath.toString();
+            this.oldSource = oldSource;
+            this.newSource = newSource;
+            this.alignment = alignment;
+            this.rulesThatMadeChanges = rulesThatMadeChanges;
         }
 
         String getDiff() {
-            if (oldId.equals(newId)) {
+            if (oldSource.equals(newSource)) {
                 return "";
             }
 
-            ByteArrayOutputStream patch = new ByteArrayOutputStream();
-            DiffFormatter formatter = new DiffFormatter(patch);
-            formatter.setRepository(repo);
+            byte[] oldBytes = oldSource.getBytes(UTF_8);
+            byte[] newBytes = newSource.getBytes(UTF_8);
+            if (RawText.isBinary(oldBytes) || RawText.isBinary(newBytes)) {
+                // as git does, say that they differ without listing lines
+                return header(new StringBuilder(256), oldBytes, newBytes)
+                        .append("Binary files differ\n")
+                        .toString();
+            }
+
+            RawText oldText = new RawText(oldBytes);
+            RawText newText = new RawText(newBytes);
+
+            ByteArrayOutputStream hunks = new ByteArrayOutputStream();
             try {
-                formatter.format(this);
+                new DiffFormatter(hunks).format(edits(oldText, newText), oldText, newText);
             } catch (IOException e) {
                 throw new UncheckedIOException(e);
             }
 
-            String diff = new String(patch.toByteArray());
-
-            AtomicBoolean addedComment = new AtomicBoolean(false);
-            // NOTE: String.lines() would remove empty lines which we don't want
-            return Arrays.stream(diff.split("\n"))
-                    .map(l -> {
-                        if (!addedComment.get() && l.startsWith("@@") && l.endsWith("@@")) {
-                            addedComment.set(true);
-                            return l + rulesThatMadeChanges.stream()
-                                    .sorted()
-                                    .collect(Collectors.joining(", ", " ", ""));
-                        }
-                        return l;
-                    })
-                    .collect(Collectors.joining("\n")) + "\n";
+            String hunksText = new String(hunks.toByteArray(), UTF_8);
+            int endOfFirstHunkHeader = hunksText.indexOf('\n');
+            if (endOfFirstHunkHeader < 0) {
+                return "";
+            }
+
+            return header(new StringBuilder(hunksText.length() + 256), oldBytes, newBytes)
+                    .append(hunksText, 0, endOfFirstHunkHeader)
+                    .append(rulesThatMadeChanges.stream().sorted().collect(joining(", ", " ", "")))
+                    .append(hunksText, endOfFirstHunkHeader, hunksText.length())
+                    .toString();
+        }
+
+        private StringBuilder header(StringBuilder diff, byte[] oldBytes, byte[] newBytes) {
+            ObjectInserter.Formatter ids = new ObjectInserter.Formatter();
+            String a = QuotedString.GIT_PATH.quote("a/" + path);
+            String b = QuotedString.GIT_PATH.quote("b/" + path);
+
+            return diff.append("diff --git ").append(a).append(' ').append(b).append('\n')
+                    .append("index ")
+                    .append(ids.idFor(Constants.OBJ_BLOB, oldBytes).abbreviate(ABBREVIATION_LENGTH).name())
+                    .append("..")
+                    .append(ids.idFor(Constants.OBJ_BLOB, newBytes).abbreviate(ABBREVIATION_LENGTH).name())
+                    .append(' ').append(FileMode.REGULAR_FILE.toString()).append('\n')
+                    .append("--- ").append(a).append('\n')
+                    .append("+++ ").append(b).append('\n');
+        }
+
+        private EditList edits(RawText oldText, RawText newText) {
+            if (alignment == null) {
+                return DIFF_ALGORITHM.diff(RawTextComparator.DEFAULT, oldText, newText);
+            }
+
+            // every whole line that lies inside a region both sources share is the same in both, so these lines
+            // split the sources into windows that can each be compared on their own
+            Lines oldLines = new Lines(oldSource);
+            Lines newLines = new Lines(newSource);
+
+            EditList edits = new EditList();
+            int oldLine = 0;
+            int newLine = 0;
+            for (int i = 0; i < alignment.size(); i++) {
+                int oldStart = alignment.originalStart(i);
+                int newStart = alignment.fixedStart(i);
+                int length = alignment.length(i);
+
+                // the first offset into the region at which both sources start a line
+                int from = 0;
+                if (!oldLines.isStart(oldStart) || !newLines.isStart(newStart)) {
+                    from = oldSource.indexOf('\n', oldStart) - oldStart + 1;
+                    if (from <= 0 || from > length) {
+                        continue;
+                    }
+                }
+
+                // the last offset into the region (or just past it, when both sources end a line right after
+                // it, as they do when trees are formatted with the whitespace before them) at which both sources
+                // start a line
+                int to;
+                int oldEnd = oldStart + length;
+                int newEnd = newStart + length;
+                if (oldEnd == oldSource.length() && newEnd == newSource.length()) {
+                    to = length;
+                } else if (oldEnd < oldSource.length() && oldSource.charAt(oldEnd) == '\n' &&
+                        newEnd < newSource.length() && newSource.charAt(newEnd) == '\n') {
+                    to = length + 1;
+                } else {
+                    to = oldSource.lastIndexOf('\n', oldEnd - 1) - oldStart + 1;
+                }
+
+                if (to <= from) {
+                    continue;
+                }
+
+                int oldFrom = oldLines.line(oldStart + from);
+                int newFrom = newLines.line(newStart + from);
+                int count = oldLines.line(oldStart + to) - oldFrom;
+                if (count <= 0 || oldFrom < oldLine || newFrom < newLine) {
+                    continue;
+                }
+
+                // a run of equal lines that the region cuts through could be paired either way, so it is left
+                // to the line diff by not splitting the comparison here
+                if (splitsRun(oldText, oldFrom, count) || splitsRun(newText, newFrom, count)) {
+                    continue;
+                }
+
+                diffWindow(edits, oldText, newText, new Edit(oldLine, oldFrom, newLine, newFrom));
+                oldLine = oldFrom + count;
+                newLine = newFrom + count;
+            }
+
+            diffWindow(edits, oldText, newText, new Edit(oldLine, oldText.size(), newLine, newText.size()));
+            return edits;
+        }
+
+        private static boolean splitsRun(RawText text, int from, int count) {
+            int to = from + count;
+            return (from > 0 && RawTextComparator.DEFAULT.equals(text, from - 1, text, from)) ||
+                    (to < text.size() && RawTextComparator.DEFAULT.equals(text, to - 1, text, to));
+        }
+
+        private static void diffWindow(EditList edits, RawText oldText, RawText newText, Edit window) {
+            if (window.getLengthA() == 0 && window.getLengthB() == 0) {
+                return;
+            }
+
+            if (window.getLengthA() == 0 || window.getLengthB() == 0) {
+                edits.add(window);
+                return;
+            }
+
+            Subsequence<RawText> a = Subsequence.a(oldText, window);
+            Subsequence<RawText> b = Subsequence.b(newText, window);
+            edits.addAll(Subsequence.toBase(
+                    DIFF_ALGORITHM.diff(new SubsequenceComparator<>(RawTextComparator.DEFAULT), a, b), a, b));
+        }
+    }
+
+    /**
+     * Where each line of a source starts, numbering lines the way {@link RawText} does.
+     */
+    private static class Lines {
+        private final String source;
+        private final int[] newlines;
+        private final int count;
+
+        Lines(String source) {
+            this.source = source;
+
+            int[] newlines = new int[16];
+            int count = 0;
+            for (int i = source.indexOf('\n'); i >= 0; i = source.indexOf('\n', i + 1)) {
+                if (count == newlines.length) {
+                    newlines = Arrays.copyOf(newlines, count * 2);
+                }
+                newlines[count++] = i;
+            }
+            this.newlines = newlines;
+            this.count = count;
+        }
+
+        boolean isStart(int offset) {
+            return offset == 0 || source.charAt(offset - 1) == '\n';
+        }
+
+        /**
+         * @param offset An offset at which a line starts, or the end of the source.
+         * @return The number of lines before the offset.
+         */
+        int line(int offset) {
+            if (offset == source.length() && offset > 0 && source.charAt(offset - 1) != '\n') {
+                // the last line has no newline at its end, but is a line all the same
+                return count + 1;
+            }
+
+            int i = Arrays.binarySearch(newlines, 0, count, offset - 1);
+            return i >= 0 ? i + 1 : -(i + 1);
         }
     }
 }
@@ -16,10 +16,24 @@
 package org.openrewrite;
 
 import java.util.Collection;
-
-import static java.util.stream.Collectors.toList;
+import java.util.concurrent.Executor;
 
 @Incubating(since = "2.0.0")
 public interface ChangePublisher {
     void publish(Collection<Change> changes);
+
+    /**
+     * Publish changes with the same result as {@link #publish(Collection)}, letting a publisher that blocks
+     * on I/O keep more than one of them in flight on an executor, e.g. one from
+     * {@link org.openrewrite.internal.VirtualThreads#newExecutor()}. Publishers opt in by overriding this
+     * where splitting the changes up doesn't change what is published. By default, the changes are published
+     * together as one call to {@link #publish(Collection)} on the calling thread, and the executor is unused.
+     *
+     * @param changes  The changes to publish.
+     * @param executor The executor a publisher may publish some of the changes on. Returns once every change
+     *                 has been published.
+     */
+    default void publish(Collection<Change> changes, Executor executor) {
+        publish(changes);
+    }
 }
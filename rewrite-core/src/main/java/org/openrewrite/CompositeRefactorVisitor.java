@@ -70,17 +70,18 @@ public class CompositeRefactorVisitor implements RefactorVisitor<Tree> {
                 .orElse(null);
     }
 
-    private final List<RefactorVisitor<? extends Tree>> andThen = new ArrayList<>();
+    private final ThreadLocal<List<RefactorVisitor<? extends Tree>>> andThen = ThreadLocal.withInitial(ArrayList::new);
 
     @Override
     public List<RefactorVisitor<? extends Tree>> andThen() {
-        return andThen;
+        return andThen.get();
     }
 
     @Override
     public void next() {
-        andThen.clear();
+        List<RefactorVisitor<? extends Tree>> pipeline = andThen.get();
+        pipeline.clear();
         delegates.forEach(RefactorVisitor::next);
-        andThen.addAll(delegates);
+        pipeline.addAll(delegates);
     }
 }
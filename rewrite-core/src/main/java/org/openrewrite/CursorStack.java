@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite;
+
+import org.openrewrite.internal.lang.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * The path from the root of a visit to the tree currently being visited, kept as a reusable array so that
+ * descending into a tree costs no allocation. An immutable {@link Cursor} is only built for the parts of the
+ * path that are asked for, and is then cached for as long as those parts of the path remain on the stack.
+ * <p>
+ * The stack also records which parts of the tree a visitor has asked not to visit.
+ */
+final class CursorStack {
+    private Tree[] trees = new Tree[32];
+
+    /**
+     * The cursor for each position of the stack, once it has been asked for. A position without a tree
+     * stands in for a cursor that was handed in from outside of the visit, and the root of the path when
+     * that cursor is {@code null}.
+     */
+    private Cursor[] cursors = new Cursor[32];
+
+    private int depth;
+
+    /**
+     * The position of the tree whose children are being skipped, or -1 when none are.
+     */
+    private int prunedAt = -1;
+
+    private boolean stopped;
+
+    void push(Tree tree) {
+        ensureCapacity();
+        trees[depth] = tree;
+        cursors[depth] = null;
+        depth++;
+    }
+
+    void push(@Nullable Cursor cursor) {
+        ensureCapacity();
+        trees[depth] = null;
+        cursors[depth] = cursor;
+        depth++;
+    }
+
+    void pop() {
+        depth--;
+        trees[depth] = null;
+        cursors[depth] = null;
+
+        if (depth == prunedAt) {
+            prunedAt = -1;
+        }
+        if (depth == 0) {
+            stopped = false;
+        }
+    }
+
+    void skipChildren() {
+        if (prunedAt < 0) {
+            prunedAt = depth - 1;
+        }
+    }
+
+    void stop() {
+        stopped = true;
+    }
+
+    /**
+     * @return {@code true} when the next tree to be pushed should not be visited at all.
+     */
+    boolean isPruned() {
+        return stopped || prunedAt >= 0;
+    }
+
+    @Nullable
+    Cursor peek() {
+        int i = depth - 1;
+
+        int j = i;
+        while (j >= 0 && cursors[j] == null && trees[j] != null) {
+            j--;
+        }
+
+        Cursor cursor = j < 0 ? null : cursors[j];
+        for (int k = j + 1; k <= i; k++) {
+            cursor = new Cursor(cursor, trees[k]);
+            cursors[k] = cursor;
+        }
+
+        return cursor;
+    }
+
+    private void ensureCapacity() {
+        if (depth == trees.length) {
+            trees = Arrays.copyOf(trees, depth * 2);
+            cursors = Arrays.copyOf(cursors, depth * 2);
+        }
+    }
+}
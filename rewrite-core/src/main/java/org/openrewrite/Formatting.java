@@ -16,14 +16,15 @@
 package org.openrewrite;
 
 import com.fasterxml.jackson.annotation.*;
-import com.koloboke.collect.map.hash.HashObjObjMaps;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.openrewrite.internal.PersistentList;
+import org.openrewrite.internal.WeakInterner;
 import org.openrewrite.internal.lang.Nullable;
 
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 /**
  * The stylistic surroundings of a tree element
@@ -31,8 +32,11 @@ import java.util.Map;
 @JsonIdentityInfo(generator = ObjectIdGenerators.IntSequenceGenerator.class, property = "@ref")
 @Getter
 public class Formatting implements Serializable {
-    // suffixes are uncommon, so we'll treat them as a secondary index
-    private static final Map<String, Map<String, Formatting>> flyweights = HashObjObjMaps.newMutableMap();
+    /**
+     * Keyed by the prefix alone when there is no suffix, which is the common case, and otherwise by
+     * {@link PrefixAndSuffix}.
+     */
+    private static final WeakInterner<Object, Formatting> flyweights = new WeakInterner<>("formatting");
 
     public static Formatting EMPTY = new Formatting("", "") {
         @Override
@@ -55,15 +59,21 @@ public class Formatting implements Serializable {
 
     @JsonCreator
     public static Formatting format(@JsonProperty("prefix") String prefix, @JsonProperty("suffix") String suffix) {
-        synchronized (flyweights) {
-            if (prefix.isEmpty() && suffix.isEmpty()) {
-                return EMPTY;
-            }
-
-            return flyweights
-                    .computeIfAbsent(prefix, p -> HashObjObjMaps.newMutableMap())
-                    .computeIfAbsent(suffix, s -> new Formatting(prefix, s));
+        if (prefix.isEmpty() && suffix.isEmpty()) {
+            return EMPTY;
         }
+
+        return flyweights.intern(suffix.isEmpty() ? prefix : new PrefixAndSuffix(prefix, suffix), key ->
+                key instanceof PrefixAndSuffix ?
+                        new Formatting(((PrefixAndSuffix) key).prefix, ((PrefixAndSuffix) key).suffix) :
+                        new Formatting((String) key, ""));
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class PrefixAndSuffix {
+        private final String prefix;
+        private final String suffix;
     }
 
     public Formatting withPrefix(String prefix) {
@@ -104,9 +114,7 @@ public class Formatting implements Serializable {
             return null;
         }
         if (!trees.isEmpty()) {
-            List<T> formattedTrees = new ArrayList<>(trees);
-            formattedTrees.set(0, formattedTrees.get(0).withPrefix(prefix));
-            return formattedTrees;
+            return PersistentList.from(trees).with(0, trees.get(0).withPrefix(prefix));
         }
         return trees;
     }
@@ -116,9 +124,7 @@ public class Formatting implements Serializable {
             return null;
         }
         if (!trees.isEmpty()) {
-            List<T> formattedTrees = new ArrayList<>(trees);
-            formattedTrees.set(formattedTrees.size() - 1, formattedTrees.get(formattedTrees.size() - 1).withSuffix(suffix));
-            return formattedTrees;
+            return PersistentList.from(trees).with(trees.size() - 1, trees.get(trees.size() - 1).withSuffix(suffix));
         }
         return trees;
     }
@@ -15,6 +15,8 @@
  */
 package org.openrewrite;
 
+import java.util.Collection;
+
 /**
  * A marker interface indicating that an implementing {@link SourceVisitor}
  * relies on state from visiting multiple source files to make a transformation.
@@ -23,4 +25,16 @@ package org.openrewrite;
  * that field name needs to be updated in referencing classes.
  */
 public interface MultiSourceVisitor {
+    /**
+     * After the first cycle, {@link Refactor} only revisits sources that were changed or generated
+     * in the previous cycle. A multi-source visitor may require other sources to be revisited too,
+     * e.g. the classes that reference a field whose name changed.
+     *
+     * @param source  A source that did not change in the previous cycle.
+     * @param changed The sources that changed in the previous cycle.
+     * @return Whether {@code source} must be revisited. By default, every source is revisited.
+     */
+    default boolean dependsOn(SourceFile source, Collection<SourceFile> changed) {
+        return true;
+    }
 }
@@ -20,12 +20,22 @@ import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Timer;
 import lombok.Getter;
+import org.openrewrite.internal.ContentHash;
+import org.openrewrite.internal.VirtualThreads;
 import org.openrewrite.internal.lang.NonNullApi;
 import org.openrewrite.internal.lang.Nullable;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
 
 /**
@@ -36,6 +46,21 @@ import static java.util.stream.Collectors.toSet;
 public class Refactor {
     private MeterRegistry meterRegistry = Metrics.globalRegistry;
 
+    @Nullable
+    private Executor executor;
+
+    /**
+     * Creates an executor for a single call to {@link #fix(Iterable, int, Consumer)}, which shuts it down again
+     * before returning.
+     */
+    @Nullable
+    private Supplier<ExecutorService> executorPerFix;
+
+    @Nullable
+    private Duration timeLimitPerSource;
+
+    private long nodeLimitPerSource = Long.MAX_VALUE;
+
     @Getter
     private final Collection<RefactorVisitor<? extends Tree>> visitors = new ArrayList<>();
 
@@ -76,94 +101,274 @@ public class Refactor {
      * @return A change set.
      */
     public Collection<Change> fix(Iterable<? extends SourceFile> sources, int maxCycles) {
+        List<Change> changes = new ArrayList<>();
+        fix(sources, maxCycles, changes::add);
+        return changes;
+    }
+
+    /**
+     * Visit a collection of sources, emitting each source's change as soon as no further cycle can change it.
+     * Once a change has been emitted, this operation holds no further references to its original or fixed tree,
+     * so the consumer can write the change out and release it.
+     * <p>
+     * When any top-level visitor is a {@link MultiSourceVisitor}, a source that is unchanged in one cycle may still
+     * be changed in a later one, so all changes are emitted after the last cycle.
+     *
+     * @param sources   The collection of sources don't have to have the same type. They can be a mixture of, for example,
+     *                  Java source files and Maven POMs.
+     * @param maxCycles The maximum number of iterations to visit the files.
+     * @param onChange  Receives each change exactly once, on the calling thread.
+     */
+    public void fix(Iterable<? extends SourceFile> sources, int maxCycles, Consumer<Change> onChange) {
+        if (executorPerFix == null) {
+            fix(sources, maxCycles, onChange, executor);
+            return;
+        }
+
+        ExecutorService executor = executorPerFix.get();
+        try {
+            fix(sources, maxCycles, onChange, executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void fix(Iterable<? extends SourceFile> sources, int maxCycles, Consumer<Change> onChange,
+                     @Nullable Executor executor) {
         Timer.Sample sample = Timer.start();
 
         Map<SourceFile, Change> changesByTree = new HashMap<>();
+        boolean changed = false;
 
         List<SourceFile> accumulatedSources = new ArrayList<>();
         sources.forEach(accumulatedSources::add);
 
+        List<MultiSourceVisitor> multiSourceVisitors = visitors.stream()
+                .filter(MultiSourceVisitor.class::isInstance)
+                .map(MultiSourceVisitor.class::cast)
+                .collect(toList());
+
+        // visitors that rely on state gathered from other source files must see the sources one at a time
+        boolean parallel = executor != null && multiSourceVisitors.isEmpty();
+
+        // on the first cycle every source is visited. Thereafter, only the sources that were changed or generated
+        // in the previous cycle (or that a multi-source visitor says depend on them) can change again.
+        BitSet dirty = new BitSet();
+        dirty.set(0, accumulatedSources.size());
+
         for (int i = 0; i < maxCycles; i++) {
             int rulesThatMadeChangesThisCycle = 0;
-            for (int j = 0; j < accumulatedSources.size(); j++) {
-                SourceFile prev = accumulatedSources.get(j);
-                if (prev == null) {
-                    // source was deleted in a previous iteration
-                    continue;
+            BitSet nextDirty = new BitSet();
+
+            for (int j = 0; j < accumulatedSources.size(); ) {
+                int to = parallel ? accumulatedSources.size() : j + 1;
+
+                List<SourceFile> wave = new ArrayList<>(to - j);
+                for (int k = j; k < to; k++) {
+                    wave.add(dirty.get(k) ? accumulatedSources.get(k) : null);
                 }
 
-                SourceFile acc = prev;
+                List<Change> cycleChanges = visitSources(wave, i, parallel ? executor : null);
 
-                for (RefactorVisitor<? extends Tree> visitor : visitors) {
-                    try {
-                        visitor.next();
+                // merge in source order, so the change set is the same regardless of which worker finished first
+                for (int k = 0; k < cycleChanges.size(); k++) {
+                    Change cycleChange = cycleChanges.get(k);
+                    if (cycleChange == null) {
+                        // source was deleted in a previous iteration or is unaffected by the last cycle
+                        continue;
+                    }
 
-                        if (!visitor.isIdempotent() && i > 0) {
-                            continue;
+                    if (cycleChange.getRulesThatMadeChanges().isEmpty() && multiSourceVisitors.isEmpty()) {
+                        // no later cycle will visit this source again, so it has reached its fixed point
+                        Change change = changesByTree.remove(cycleChange.getFixed());
+                        if (change != null) {
+                            emit(change, onChange);
                         }
+                        accumulatedSources.set(j + k, null);
+                        continue;
+                    }
 
-                        SourceFile before = acc;
-                        acc = (SourceFile) transformPipeline(acc, visitor);
-
-                        if (before != acc) {
-                            // we should only report on the top-level visitors, not any andThen() visitors that
-                            // are applied as part of the top-level visitor's pipeline
-                            changesByTree.compute(acc, (acc2, prevChange) -> prevChange == null ?
-                                    new Change(prev, acc2, Collections.singleton(visitor.getName())) :
-                                    new Change(prev, acc2, Stream
-                                            .concat(prevChange.getRulesThatMadeChanges().stream(), Stream.of(visitor.getName()))
-                                            .collect(toSet()))
-                            );
-                            rulesThatMadeChangesThisCycle++;
-                        }
-                    } catch (Throwable t) {
-                        Counter.builder("rewrite.visitor.errors")
-                                .baseUnit("errors")
-                                .description("Visitors that threw exceptions")
-                                .tag("visitor", visitor.getClass().getName())
-                                .tag("tree.type", prev.getClass().getName())
-                                .register(meterRegistry)
-                                .increment();
+                    if (!cycleChange.getRulesThatMadeChanges().isEmpty()) {
+                        changed = true;
+
+                        // we should only report on the top-level visitors, not any andThen() visitors that
+                        // are applied as part of the top-level visitor's pipeline
+                        changesByTree.compute(cycleChange.getFixed(), (acc, prevChange) -> prevChange == null ?
+                                cycleChange :
+                                new Change(prevChange.getOriginal(), acc, Stream
+                                        .concat(prevChange.getRulesThatMadeChanges().stream(), cycleChange.getRulesThatMadeChanges().stream())
+                                        .collect(toSet()))
+                        );
+                        rulesThatMadeChangesThisCycle += cycleChange.getRulesThatMadeChanges().size();
+                        nextDirty.set(j + k);
                     }
+
+                    accumulatedSources.set(j + k, cycleChange.getFixed());
                 }
 
                 // we've seen all the files once, so if any new source files needs to be generated by any of the visitors,
                 // let's do that now. On the next cycle, these visitors shouldn't generate these files again, but update
                 // them in place as necessary.
+                int generatedFrom = accumulatedSources.size();
                 for (RefactorVisitor<? extends Tree> visitor : visitors) {
                     rulesThatMadeChangesThisCycle += visitor.generate().stream()
                             .map(g -> accumulatedSources.add((SourceFile) g))
                             .count();
                 }
+                dirty.set(generatedFrom, accumulatedSources.size());
+                nextDirty.set(generatedFrom, accumulatedSources.size());
 
-                accumulatedSources.set(j, acc);
+                j = to;
             }
 
             if (rulesThatMadeChangesThisCycle == 0) {
                 break;
             }
+
+            if (!multiSourceVisitors.isEmpty()) {
+                List<SourceFile> changedSources = new ArrayList<>(nextDirty.cardinality());
+                nextDirty.stream().forEach(k -> changedSources.add(accumulatedSources.get(k)));
+
+                for (int k = nextDirty.nextClearBit(0); k < accumulatedSources.size(); k = nextDirty.nextClearBit(k + 1)) {
+                    SourceFile source = accumulatedSources.get(k);
+                    if (source != null) {
+                        for (MultiSourceVisitor multiSourceVisitor : multiSourceVisitors) {
+                            if (multiSourceVisitor.dependsOn(source, changedSources)) {
+                                nextDirty.set(k);
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+
+            dirty = nextDirty;
+        }
+
+        for (Change change : changesByTree.values()) {
+            emit(change, onChange);
         }
 
         sample.stop(Timer.builder("rewrite.refactor.plan")
                 .description("The time it takes to execute a refactoring plan consisting of potentially more than one visitor over more than one cycle")
-                .tag("outcome", changesByTree.isEmpty() ? "unchanged" : "changed")
+                .tag("outcome", changed ? "changed" : "unchanged")
+                .tag("parallel", Boolean.toString(parallel))
                 .register(meterRegistry));
+    }
 
-        for (Change change : changesByTree.values()) {
-            for (String ruleThatMadeChange : change.getRulesThatMadeChanges()) {
-                Counter.builder("rewrite.refactor.plan.changes")
-                        .description("The number of changes requested by a visitor")
-                        .tag("visitor", ruleThatMadeChange)
-                        .tag("tree.type", change.getTreeType() == null ? "unknown" : change.getTreeType().getName())
+    private void emit(Change change, Consumer<Change> onChange) {
+        for (String ruleThatMadeChange : change.getRulesThatMadeChanges()) {
+            Counter.builder("rewrite.refactor.plan.changes")
+                    .description("The number of changes requested by a visitor")
+                    .tag("visitor", ruleThatMadeChange)
+                    .tag("tree.type", change.getTreeType() == null ? "unknown" : change.getTreeType().getName())
+                    .register(meterRegistry)
+                    .increment();
+        }
+
+        onChange.accept(change);
+    }
+
+    /**
+     * @return The change made to each source in this cycle, in the same order as the sources. The change
+     * is {@code null} for sources that were deleted in a previous cycle or that are not being revisited.
+     */
+    private List<Change> visitSources(List<SourceFile> sources, int cycle, @Nullable Executor executor) {
+        if (executor == null || sources.size() == 1) {
+            List<Change> cycleChanges = new ArrayList<>(sources.size());
+            for (SourceFile source : sources) {
+                cycleChanges.add(visitSource(source, cycle));
+            }
+            return cycleChanges;
+        }
+
+        List<CompletableFuture<Change>> futures = new ArrayList<>(sources.size());
+        for (SourceFile source : sources) {
+            futures.add(source == null ?
+                    CompletableFuture.completedFuture(null) :
+                    CompletableFuture.supplyAsync(() -> visitSource(source, cycle), executor));
+        }
+
+        List<Change> cycleChanges = new ArrayList<>(futures.size());
+        for (CompletableFuture<Change> future : futures) {
+            cycleChanges.add(future.join());
+        }
+        return cycleChanges;
+    }
+
+    /**
+     * Run every top-level visitor over a single source.
+     *
+     * @return A change whose original is the source as it was at the beginning of this cycle and whose
+     * rules are those that made changes to it in this cycle (possibly none).
+     */
+    @Nullable
+    private Change visitSource(@Nullable SourceFile prev, int cycle) {
+        if (prev == null) {
+            return null;
+        }
+
+        SourceFile acc = prev;
+        Set<String> rulesThatMadeChanges = new HashSet<>();
+
+        for (RefactorVisitor<? extends Tree> visitor : visitors) {
+            try {
+                visitor.next();
+
+                if (!visitor.isIdempotent() && cycle > 0) {
+                    continue;
+                }
+
+                SourceFile before = acc;
+                VisitBudget.start(timeLimitPerSource, nodeLimitPerSource);
+                try {
+                    acc = (SourceFile) transformPipeline(acc, visitor);
+                } finally {
+                    VisitBudget.end();
+                }
+
+                if (before != acc && printsDifferently(before, acc)) {
+                    rulesThatMadeChanges.add(visitor.getName());
+                }
+            } catch (VisitBudget.Exceeded e) {
+                // the visitor's partial work on this source is discarded, and the rest of the run carries on
+                Counter.builder("rewrite.visitor.timeouts")
+                        .baseUnit("timeouts")
+                        .description("Visitors that exceeded their budget for a single source file")
+                        .tag("visitor", visitor.getClass().getName())
+                        .tag("tree.type", prev.getClass().getName())
+                        .tag("budget", e.getBudget())
+                        .register(meterRegistry)
+                        .increment();
+            } catch (Throwable t) {
+                Counter.builder("rewrite.visitor.errors")
+                        .baseUnit("errors")
+                        .description("Visitors that threw exceptions")
+                        .tag("visitor", visitor.getClass().getName())
+                        .tag("tree.type", prev.getClass().getName())
                         .register(meterRegistry)
                         .increment();
             }
         }
 
-        return changesByTree.values();
+        return new Change(prev, acc, rulesThatMadeChanges);
+    }
+
+    /**
+     * A visitor that rebuilt a source file without changing how it prints hasn't made a change worth reporting. The
+     * rebuilt source file is still handed on to later visitors, since it may differ in ways that don't print, like
+     * type attribution. Content hashes are cached on source files, so differing hashes settle it without printing
+     * either again. Equal hashes could collide, so they're confirmed by comparing the printed text.
+     */
+    private static boolean printsDifferently(SourceFile before, SourceFile after) {
+        return before.getContentHash() != after.getContentHash() || !ContentHash.printsAs(after, before.print());
     }
 
     private Tree transformPipeline(Tree acc, RefactorVisitor<? extends Tree> visitor) {
+        if (acc instanceof SourceFile && !visitor.isApplicable((SourceFile) acc)) {
+            return acc;
+        }
+
         // by transforming the AST for each op, we allow for the possibility of overlapping changes
         Timer.Sample sample = Timer.start();
         acc = visitor.visit(acc);
@@ -185,4 +390,88 @@ public class Refactor {
         this.meterRegistry = meterRegistry;
         return this;
     }
+
+    /**
+     * Limit the wall-clock time that each top-level visitor and its pipeline may spend on a single source file.
+     * A visitor that runs out of time is abandoned for that source file, its partial changes are discarded,
+     * and the timeout is recorded in the {@code rewrite.visitor.timeouts} metric.
+     *
+     * @param timeLimitPerSource The time limit, or {@code null} for no limit.
+     * @return This refactoring operation.
+     */
+    public Refactor setTimeLimitPerSource(@Nullable Duration timeLimitPerSource) {
+        this.timeLimitPerSource = timeLimitPerSource;
+        return this;
+    }
+
+    /**
+     * Limit the number of trees that each top-level visitor and its pipeline may visit in a single source file.
+     * A visitor that exceeds the limit is abandoned for that source file in the same way as when it exceeds
+     * its {@link #setTimeLimitPerSource(Duration) time limit}.
+     *
+     * @param nodeLimitPerSource The maximum number of trees to visit.
+     * @return This refactoring operation.
+     */
+    public Refactor setNodeLimitPerSource(long nodeLimitPerSource) {
+        this.nodeLimitPerSource = nodeLimitPerSource;
+        return this;
+    }
+
+    /**
+     * Visit sources in parallel on the supplied executor. Each cycle fans the sources out across the
+     * executor's workers and merges their changes back in source order. When any top-level visitor is a
+     * {@link MultiSourceVisitor}, sources are still visited one at a time on the calling thread.
+     * <p>
+     * Visitors run this way must not keep per-source state in instance fields outside of
+     * thread-local storage, as {@link AbstractRefactorVisitor} does for its cursor and pipeline.
+     *
+     * @param executor The executor to visit sources on, or {@code null} to visit them sequentially. The caller
+     *                 owns the executor and is responsible for shutting it down.
+     * @return This refactoring operation.
+     */
+    public Refactor setExecutor(@Nullable Executor executor) {
+        this.executor = executor;
+        this.executorPerFix = null;
+        return this;
+    }
+
+    private Refactor setExecutorPerFix(Supplier<ExecutorService> executorPerFix) {
+        this.executor = null;
+        this.executorPerFix = executorPerFix;
+        return this;
+    }
+
+    /**
+     * Visit each source on its own virtual thread when running on a JDK that has them, or else on a bounded
+     * pool of platform threads. Prefer this to {@link #parallel()} when visitors block on I/O. The executor
+     * is created for each call to {@code fix} and shut down before it returns.
+     *
+     * @return This refactoring operation.
+     */
+    public Refactor virtualThreads() {
+        return setExecutorPerFix(VirtualThreads::newExecutor);
+    }
+
+    /**
+     * Visit sources in parallel on a fork-join pool sized to the number of available processors.
+     *
+     * @return This refactoring operation.
+     */
+    public Refactor parallel() {
+        return parallel(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Visit sources in parallel on a fork-join pool of a particular size. This is the common pool when it has
+     * the same parallelism. Otherwise, a pool is created for each call to {@code fix} and shut down before it returns.
+     *
+     * @param parallelism The number of workers to visit sources with.
+     * @return This refactoring operation.
+     */
+    public Refactor parallel(int parallelism) {
+        if (parallelism == ForkJoinPool.getCommonPoolParallelism()) {
+            return setExecutor(ForkJoinPool.commonPool());
+        }
+        return setExecutorPerFix(() -> new ForkJoinPool(parallelism));
+    }
 }
@@ -45,6 +45,17 @@ public interface RefactorVisitor<T extends Tree> extends SourceVisitor<T> {
         return true;
     }
 
+    /**
+     * A cheap precondition that lets {@link Refactor} skip visiting a source file altogether when this
+     * visitor could not possibly change it, e.g. because the source doesn't reference a particular type.
+     *
+     * @param source The source file about to be visited.
+     * @return Whether to visit the source file. When false, neither this visitor nor its pipeline is run.
+     */
+    default boolean isApplicable(SourceFile source) {
+        return true;
+    }
+
     default Collection<T> generate() {
         return emptyList();
     }
@@ -17,16 +17,25 @@ package org.openrewrite;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import org.openrewrite.internal.ContentHash;
+import org.openrewrite.internal.PrintOutput;
 import org.openrewrite.internal.StringUtils;
+import org.openrewrite.internal.TreeIds;
 import org.openrewrite.internal.lang.Nullable;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
 import java.util.Optional;
 import java.util.UUID;
 
 @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, property = "@c")
 public interface Tree {
     static UUID randomId() {
-        return UUID.randomUUID();
+        return TreeIds.next();
     }
 
     Formatting getFormatting();
@@ -76,6 +85,55 @@ public interface Tree {
 
     String print();
 
+    /**
+     * Write the printed form of this tree to {@code out}. Trees whose printers write as they go don't build the
+     * printed form up as one string first.
+     *
+     * @param out Where to write the printed form of this tree.
+     */
+    default void printTo(Appendable out) {
+        PrintOutput output = new PrintOutput(out);
+        printTo(output);
+        output.flush();
+    }
+
+    /**
+     * Write the printed form of this tree to the output of a printer that is already under way.
+     *
+     * @param out The output to write to.
+     */
+    default void printTo(PrintOutput out) {
+        out.append(print());
+    }
+
+    /**
+     * Write the printed form of this tree to a channel, such as a file, without building it up as one string or
+     * one byte array first. The channel is left open.
+     *
+     * @param channel Where to write the printed form of this tree.
+     * @param charset The encoding of the printed form.
+     */
+    default void printTo(WritableByteChannel channel, Charset charset) {
+        Writer writer = Channels.newWriter(channel, charset.newEncoder(), -1);
+        printTo(writer);
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A hash of the printed form of this tree, for telling whether two trees print the same without comparing
+     * their printed forms. Source files compute it at most once, since trees are immutable.
+     *
+     * @return A hash of the printed form of this tree.
+     */
+    @JsonIgnore
+    default long getContentHash() {
+        return ContentHash.of(this);
+    }
+
     @SuppressWarnings("unchecked")
     default <T extends Tree> Optional<T> whenType(Class<T> treeType) {
         return treeType.isAssignableFrom(this.getClass()) ? Optional.of((T) this) : Optional.empty();
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite;
+
+import org.openrewrite.internal.lang.Nullable;
+
+import java.time.Duration;
+
+/**
+ * Limits how long a single visitor pipeline may spend on one source file and how many trees it may visit
+ * there. Budgets are checked cooperatively as each tree is visited, so a visitor stuck in a pathological
+ * source file is abandoned at the next tree it reaches.
+ */
+final class VisitBudget {
+    private static final ThreadLocal<VisitBudget> current = new ThreadLocal<>();
+
+    /**
+     * Checking the clock on every tree would cost more than the visit itself on small trees.
+     */
+    private static final int CLOCK_CHECK_INTERVAL = 256;
+
+    private final boolean timeLimited;
+    private final long deadline;
+    private final long maxNodes;
+    private long nodes;
+
+    private VisitBudget(@Nullable Duration timeLimit, long maxNodes) {
+        // without a time limit there is no deadline, and comparing nanoTime against a stand-in for one could overflow
+        this.timeLimited = timeLimit != null;
+        this.deadline = timeLimit == null ? 0 : System.nanoTime() + timeLimit.toNanos();
+        this.maxNodes = maxNodes;
+    }
+
+    static void start(@Nullable Duration timeLimit, long maxNodes) {
+        current.set(timeLimit == null && maxNodes == Long.MAX_VALUE ? null : new VisitBudget(timeLimit, maxNodes));
+    }
+
+    static void end() {
+        current.remove();
+    }
+
+    /**
+     * Charge one visited tree against the budget of the visitor pipeline running on this thread, if any.
+     *
+     * @throws Exceeded when either the node or the time budget has been exhausted.
+     */
+    static void charge() {
+        VisitBudget budget = current.get();
+        if (budget == null) {
+            return;
+        }
+
+        if (++budget.nodes > budget.maxNodes) {
+            throw new Exceeded("nodes");
+        }
+
+        if (budget.timeLimited && budget.nodes % CLOCK_CHECK_INTERVAL == 0 && System.nanoTime() - budget.deadline > 0) {
+            throw new Exceeded("time");
+        }
+    }
+
+    static class Exceeded extends RuntimeException {
+        private final String budget;
+
+        Exceeded(String budget) {
+            // thrown from deep inside a visit, where a stack trace would be both long and useless
+            super("Exceeded the " + budget + " budget for visiting a single source file", null, false, false);
+            this.budget = budget;
+        }
+
+        String getBudget() {
+            return budget;
+        }
+    }
+}
@@ -23,6 +23,7 @@ import org.kohsuke.github.GitHub;
 import org.openrewrite.Change;
 import org.openrewrite.ChangePublisher;
 import org.openrewrite.Incubating;
+import org.openrewrite.internal.ContentHash;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,7 +31,13 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
 
 /**
  * Uses the GitHub update content API, which posts a commit for each changed file per repository.
@@ -60,6 +67,27 @@ public class GithubChangePublisher implements ChangePublisher {
         changes.forEach(this::publishEach);
     }
 
+    /**
+     * Every file is its own commit either way, so repositories are published at once. The files in any one
+     * repository are still published one after another, since GitHub rejects a commit to a branch whose head
+     * moved while it was being made.
+     */
+    @Override
+    public void publish(Collection<Change> changes, Executor executor) {
+        CompletableFuture.allOf(changes.stream()
+                .collect(groupingBy(GithubChangePublisher::repository, LinkedHashMap::new, toList()))
+                .values().stream()
+                .map(repositoryChanges -> CompletableFuture.runAsync(() -> publish(repositoryChanges), executor))
+                .toArray(CompletableFuture[]::new))
+                .join();
+    }
+
+    private static String repository(Change change) {
+        return change.getFixed() == null ? "" : change.getFixed().getMetadata(GithubMetadata.class)
+                .map(metadata -> metadata.getOrganization() + "/" + metadata.getRepository())
+                .orElse("");
+    }
+
     public void publishEach(Change change) {
         Timer.Sample sample = Timer.start();
         if (change.getFixed() == null) {
@@ -88,7 +116,8 @@ public class GithubChangePublisher implements ChangePublisher {
                         if (verifyOriginal && change.getOriginal() != null) {
                             try (Scanner scanner = new Scanner(fileContent.read(), StandardCharsets.UTF_8.name())) {
                                 String fileContentString = scanner.useDelimiter("\\A").next();
-                                if (!change.getOriginal().print().equals(fileContentString)) {
+                                // compared as the original is printed, so it's printed once and never held in memory
+                                if (!ContentHash.printsAs(change.getOriginal(), fileContentString)) {
                                     logger.warn("Attempting to make a change to " + organization +
                                             "/" + repository + ":" + change.getOriginal().getSourcePath() +
                                             " in repository, but the contents in GitHub do not match the original source");
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.internal;
+
+import org.openrewrite.Tree;
+
+/**
+ * A 64-bit FNV-1a hash of text, wide enough that two different versions of a source file are very unlikely
+ * to share a hash.
+ */
+public class ContentHash {
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    public static long of(CharSequence text) {
+        return new Hasher().append(text).hash;
+    }
+
+    /**
+     * Hash the printed form of a tree as it is being printed, without holding all of it in memory at once.
+     *
+     * @param tree The tree to hash.
+     * @return The same hash as that of {@link Tree#print()}.
+     */
+    public static long of(Tree tree) {
+        Hasher hasher = new Hasher();
+        tree.printTo(hasher);
+        return hasher.hash;
+    }
+
+    /**
+     * Compare the printed form of a tree to some text as the tree is being printed, without holding all of the
+     * printed form in memory at once.
+     *
+     * @param tree The tree to print.
+     * @param text The text to compare the printed tree to.
+     * @return Whether the tree prints as exactly this text.
+     */
+    public static boolean printsAs(Tree tree, CharSequence text) {
+        Comparison comparison = new Comparison(text);
+        tree.printTo(comparison);
+        return comparison.matches && comparison.position == text.length();
+    }
+
+    private static class Comparison implements Appendable {
+        private final CharSequence text;
+        int position;
+        boolean matches = true;
+
+        Comparison(CharSequence text) {
+            this.text = text;
+        }
+
+        @Override
+        public Comparison append(CharSequence csq) {
+            return append(csq, 0, csq.length());
+        }
+
+        @Override
+        public Comparison append(CharSequence csq, int start, int end) {
+            for (int i = start; i < end && matches; i++) {
+                append(csq.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public Comparison append(char c) {
+            if (matches) {
+                matches = position < text.length() && text.charAt(position++) == c;
+            }
+            return this;
+        }
+    }
+
+    private static class Hasher implements Appendable {
+        long hash = OFFSET_BASIS;
+
+        @Override
+        public Hasher append(CharSequence csq) {
+            return append(csq, 0, csq.length());
+        }
+
+        @Override
+        public Hasher append(CharSequence csq, int start, int end) {
+            for (int i = start; i < end; i++) {
+                append(csq.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public Hasher append(char c) {
+            hash = (hash ^ (c & 0xff)) * PRIME;
+            hash = (hash ^ (c >>> 8)) * PRIME;
+            return this;
+        }
+    }
+}
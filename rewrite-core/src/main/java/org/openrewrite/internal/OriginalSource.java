@@ -0,0 +1,312 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.internal;
+
+import org.openrewrite.Tree;
+import org.openrewrite.internal.lang.Nullable;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Remembers which part of the source it was parsed from each tree covers, so that printing a tree that is still the
+ * very instance the parser produced copies the original text rather than rendering the tree again. Since trees are
+ * immutable, such a tree is guaranteed to print the same as it did when it was parsed, and the cost of printing a
+ * source file becomes proportional to how much of it has changed.
+ * <p>
+ * Retaining the original source is opt-in. Hand the same instance to each parser whose source files should be
+ * retained, and print through {@link #print(Tree)} or a {@link PrintOutput} made with it. Everything is released
+ * once the instance itself is no longer referenced.
+ * <p>
+ * Only trees whose printed form is at least {@link #MIN_SPAN_LENGTH} long are remembered, since smaller ones are as
+ * cheap to render again as they are to look up. Trees are held weakly, along with the source text they were parsed
+ * from, so the text of a source file is held for as long as any tree parsed from it is.
+ */
+public final class OriginalSource {
+    static final int MIN_SPAN_LENGTH = 64;
+
+    private final ConcurrentMap<Identity, Span> spans = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Tree> collected = new ReferenceQueue<>();
+
+    /**
+     * Called by parsers with each source file they produce. Nothing is retained if printing the source file doesn't
+     * reproduce its source exactly.
+     *
+     * @param sourceFile The source file that was just parsed.
+     * @param source     The text it was parsed from.
+     * @param <S>        The type of source file.
+     * @return The source file.
+     */
+    public <S extends Tree> S retain(S sourceFile, String source) {
+        expunge();
+
+        ParsedSpans capture = new ParsedSpans();
+        StringBuilder printed = new StringBuilder(source.length());
+        PrintOutput out = new PrintOutput(printed, null, capture);
+        sourceFile.printTo(out);
+        out.flush();
+
+        if (source.contentEquals(printed)) {
+            for (int i = 0; i < capture.trees.size(); i++) {
+                spans.put(new Key(capture.trees.get(i), collected),
+                        new Span(source, capture.starts.get(i), capture.ends.get(i)));
+            }
+        }
+
+        return sourceFile;
+    }
+
+    /**
+     * @param tree The tree to print.
+     * @return The printed tree, with any trees that are unchanged since they were parsed copied from their source.
+     */
+    public String print(Tree tree) {
+        StringBuilder printed = new StringBuilder();
+        printTo(tree, printed);
+        return printed.toString();
+    }
+
+    /**
+     * @param tree The tree to print.
+     * @param out  Receives the printed tree, with any trees that are unchanged since they were parsed copied from
+     *             their source.
+     */
+    public void printTo(Tree tree, Appendable out) {
+        PrintOutput printOutput = new PrintOutput(out, this);
+        tree.printTo(printOutput);
+        printOutput.flush();
+    }
+
+    /**
+     * Print a changed source file, recording which parts of the result are copied unchanged from the source its
+     * original was parsed from. Since each of those parts is a tree the fixed source file shares with the original
+     * one, only the text between them can differ.
+     *
+     * @param original A source file as it was parsed.
+     * @param fixed    The same source file after it has been changed.
+     * @return The alignment of the two, or {@code null} if the original's source isn't retained.
+     */
+    @Nullable
+    public Alignment align(Tree original, Tree fixed) {
+        expunge();
+
+        Span root = spans.get(new Lookup(original));
+        if (root == null || root.start != 0 || root.end != root.source.length()) {
+            return null;
+        }
+
+        Alignment alignment = new Alignment(root.source);
+        StringBuilder printed = new StringBuilder(root.source.length());
+        PrintOutput out = new PrintOutput(printed, this, alignment);
+        fixed.printTo(out);
+        out.flush();
+        alignment.fixed = printed.toString();
+
+        return alignment;
+    }
+
+    @Nullable
+    Span copy(Tree tree, PrintOutput out) {
+        expunge();
+        if (spans.isEmpty()) {
+            return null;
+        }
+
+        Span span = spans.get(new Lookup(tree));
+        if (span == null) {
+            return null;
+        }
+
+        out.append(span.source, span.start, span.end);
+        return span;
+    }
+
+    private void expunge() {
+        Reference<? extends Tree> ref;
+        while ((ref = collected.poll()) != null) {
+            //noinspection SuspiciousMethodCalls
+            spans.remove(ref);
+        }
+    }
+
+    /**
+     * Told where each tree ends up as a source file is printed.
+     */
+    static class Capture {
+        /**
+         * @param tree  A tree that was rendered.
+         * @param start Where its printed form starts in the output.
+         * @param end   Where its printed form ends in the output.
+         */
+        void record(Tree tree, int start, int end) {
+        }
+
+        /**
+         * @param span  The original source of a tree that was copied rather than rendered.
+         * @param start Where the copy starts in the output.
+         */
+        void copied(Span span, int start) {
+        }
+    }
+
+    private static class ParsedSpans extends Capture {
+        private final List<Tree> trees = new ArrayList<>();
+        private final List<Integer> starts = new ArrayList<>();
+        private final List<Integer> ends = new ArrayList<>();
+
+        @Override
+        void record(Tree tree, int start, int end) {
+            if (end - start >= MIN_SPAN_LENGTH) {
+                trees.add(tree);
+                starts.add(start);
+                ends.add(end);
+            }
+        }
+    }
+
+    /**
+     * The printed forms of an original and a changed source file, along with the regions of the two that are
+     * known to be the same because they were copied from the same trees. Regions are in the order they appear in
+     * both sources, and don't overlap.
+     */
+    public static final class Alignment extends Capture {
+        private final String original;
+        private String fixed = "";
+
+        private final List<Integer> originalStarts = new ArrayList<>();
+        private final List<Integer> fixedStarts = new ArrayList<>();
+        private final List<Integer> lengths = new ArrayList<>();
+        private int originalEnd;
+
+        private Alignment(String original) {
+            this.original = original;
+        }
+
+        public String getOriginal() {
+            return original;
+        }
+
+        public String getFixed() {
+            return fixed;
+        }
+
+        /**
+         * @return The number of regions that are the same in both sources.
+         */
+        public int size() {
+            return lengths.size();
+        }
+
+        public int originalStart(int region) {
+            return originalStarts.get(region);
+        }
+
+        public int fixedStart(int region) {
+            return fixedStarts.get(region);
+        }
+
+        public int length(int region) {
+            return lengths.get(region);
+        }
+
+        @Override
+        void copied(Span span, int start) {
+            // a tree that was moved ahead of where it was, or that was copied in from some other source file,
+            // can't be lined up with the original
+            if (span.source == original && span.start >= originalEnd) {
+                originalStarts.add(span.start);
+                fixedStarts.add(start);
+                lengths.add(span.end - span.start);
+                originalEnd = span.end;
+            }
+        }
+    }
+
+    static class Span {
+        private final String source;
+        private final int start;
+        private final int end;
+
+        private Span(String source, int start, int end) {
+            this.source = source;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Trees are compared by identity rather than by their {@link Object#equals(Object)}, which only compares ids.
+     */
+    private interface Identity {
+        @Nullable
+        Object get();
+
+        static boolean same(Identity i1, Object o) {
+            if (i1 == o) {
+                return true;
+            }
+            Object t = i1.get();
+            return t != null && o instanceof Identity && t == ((Identity) o).get();
+        }
+    }
+
+    private static class Key extends WeakReference<Tree> implements Identity {
+        private final int hash;
+
+        private Key(Tree tree, ReferenceQueue<Tree> queue) {
+            super(tree, queue);
+            this.hash = System.identityHashCode(tree);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return Identity.same(this, o);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static class Lookup implements Identity {
+        private final Tree tree;
+
+        private Lookup(Tree tree) {
+            this.tree = tree;
+        }
+
+        @Override
+        public Tree get() {
+            return tree;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return Identity.same(this, o);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(tree);
+        }
+    }
+}
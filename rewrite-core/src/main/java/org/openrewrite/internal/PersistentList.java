@@ -0,0 +1,262 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.internal;
+
+import org.openrewrite.internal.lang.Nullable;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * An immutable list that shares structure with the lists it was derived from, backed by a balanced binary tree.
+ * Replacing, inserting, or removing a single element costs O(log n) and leaves the original list untouched,
+ * which makes it a good fit for the child lists of a tree that visitors change one element at a time.
+ * Getting an element by index costs O(log n) as well, so it isn't {@link RandomAccess}. Iterate over it instead.
+ * <p>
+ * Each element takes a node of 32 bytes (with compressed references), against 4 bytes for a slot of an
+ * {@link ArrayList}. So parsers build plain lists, and a child list is only made persistent by the first change
+ * to it, e.g. with {@link #from(Collection)} followed by {@link #with(int, Object)}. From then on, each change
+ * allocates O(log n) nodes instead of copying the list: about 13 nodes, or 416 bytes, in place of a 20 KB copy
+ * for a list of 5,000 statements.
+ * <p>
+ * Like any {@link List} returned by a tree, it can't be modified in place, so the mutating methods of {@link List}
+ * throw {@link UnsupportedOperationException}. Use {@link #with(int, Object)}, {@link #plus(int, Object)}, and
+ * {@link #minus(int)} instead.
+ *
+ * @param <T> The element type.
+ */
+public final class PersistentList<T> extends AbstractList<T> implements Serializable {
+    private static final PersistentList<?> EMPTY = new PersistentList<>(null);
+
+    @Nullable
+    private final Node<T> root;
+
+    private PersistentList(@Nullable Node<T> root) {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentList<T> empty() {
+        return (PersistentList<T>) EMPTY;
+    }
+
+    /**
+     * @param elements The elements of the new list.
+     * @param <T>      The element type.
+     * @return The same list if it is already persistent, otherwise a persistent copy of it.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentList<T> from(Collection<? extends T> elements) {
+        if (elements instanceof PersistentList) {
+            return (PersistentList<T>) elements;
+        }
+        return elements.isEmpty() ? empty() : new PersistentList<>(build(elements.toArray(), 0, elements.size()));
+    }
+
+    @Override
+    public T get(int index) {
+        checkIndex(index, size());
+        Node<T> n = root;
+        while (true) {
+            //noinspection ConstantConditions
+            int leftSize = size(n.left);
+            if (index < leftSize) {
+                n = n.left;
+            } else if (index == leftSize) {
+                return n.value;
+            } else {
+                index -= leftSize + 1;
+                n = n.right;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * @return A list with the element at {@code index} replaced, or this list if that element is already {@code t}.
+     */
+    public PersistentList<T> with(int index, T t) {
+        checkIndex(index, size());
+        return get(index) == t ? this : new PersistentList<>(with(root, index, t));
+    }
+
+    public PersistentList<T> plus(T t) {
+        return plus(size(), t);
+    }
+
+    /**
+     * @return A list with {@code t} inserted at {@code index}, shifting the element at that position and any after it
+     * to the right.
+     */
+    public PersistentList<T> plus(int index, T t) {
+        checkIndex(index, size() + 1);
+        return new PersistentList<>(insert(root, index, t));
+    }
+
+    public PersistentList<T> minus(int index) {
+        checkIndex(index, size());
+        return new PersistentList<>(remove(root, index));
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private final Deque<Node<T>> path = new ArrayDeque<>();
+
+            {
+                descendLeft(root);
+            }
+
+            private void descendLeft(@Nullable Node<T> n) {
+                for (; n != null; n = n.left) {
+                    path.push(n);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !path.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (path.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node<T> n = path.pop();
+                descendLeft(n.right);
+                return n.value;
+            }
+        };
+    }
+
+    private static void checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private static final class Node<T> implements Serializable {
+        @Nullable
+        final T value;
+
+        @Nullable
+        final Node<T> left;
+
+        @Nullable
+        final Node<T> right;
+
+        final int size;
+        final int height;
+
+        Node(@Nullable T value, @Nullable Node<T> left, @Nullable Node<T> right) {
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.size = size(left) + size(right) + 1;
+            this.height = Math.max(height(left), height(right)) + 1;
+        }
+    }
+
+    private static int size(@Nullable Node<?> n) {
+        return n == null ? 0 : n.size;
+    }
+
+    private static int height(@Nullable Node<?> n) {
+        return n == null ? 0 : n.height;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    private static <T> Node<T> build(Object[] elements, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int mid = (from + to) >>> 1;
+        return new Node<>((T) elements[mid], build(elements, from, mid), build(elements, mid + 1, to));
+    }
+
+    private static <T> Node<T> with(Node<T> n, int index, T t) {
+        int leftSize = size(n.left);
+        if (index < leftSize) {
+            //noinspection ConstantConditions
+            return new Node<>(n.value, with(n.left, index, t), n.right);
+        } else if (index == leftSize) {
+            return new Node<>(t, n.left, n.right);
+        }
+        //noinspection ConstantConditions
+        return new Node<>(n.value, n.left, with(n.right, index - leftSize - 1, t));
+    }
+
+    private static <T> Node<T> insert(@Nullable Node<T> n, int index, T t) {
+        if (n == null) {
+            return new Node<>(t, null, null);
+        }
+        int leftSize = size(n.left);
+        return index <= leftSize ?
+                balance(n.value, insert(n.left, index, t), n.right) :
+                balance(n.value, n.left, insert(n.right, index - leftSize - 1, t));
+    }
+
+    @Nullable
+    private static <T> Node<T> remove(Node<T> n, int index) {
+        int leftSize = size(n.left);
+        if (index < leftSize) {
+            //noinspection ConstantConditions
+            return balance(n.value, remove(n.left, index), n.right);
+        } else if (index > leftSize) {
+            //noinspection ConstantConditions
+            return balance(n.value, n.left, remove(n.right, index - leftSize - 1));
+        } else if (n.left == null) {
+            return n.right;
+        } else if (n.right == null) {
+            return n.left;
+        }
+
+        // replace the removed element with its successor
+        Node<T> successor = n.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.value, n.left, remove(n.right, 0));
+    }
+
+    /**
+     * Restores the AVL invariant that the heights of the two subtrees differ by at most one, given that they differ
+     * by at most two.
+     */
+    @SuppressWarnings("ConstantConditions")
+    private static <T> Node<T> balance(@Nullable T value, @Nullable Node<T> left, @Nullable Node<T> right) {
+        if (height(left) > height(right) + 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Node<>(left.value, left.left, new Node<>(value, left.right, right));
+            }
+            Node<T> lr = left.right;
+            return new Node<>(lr.value, new Node<>(left.value, left.left, lr.left), new Node<>(value, lr.right, right));
+        } else if (height(right) > height(left) + 1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Node<>(right.value, new Node<>(value, left, right.left), right.right);
+            }
+            Node<T> rl = right.left;
+            return new Node<>(rl.value, new Node<>(value, left, rl.left), new Node<>(right.value, rl.right, right.right));
+        }
+        return new Node<>(value, left, right);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.internal;
+
+import org.openrewrite.Tree;
+import org.openrewrite.internal.lang.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Where a printer writes the source it prints, in the order it prints it. Printing into a {@link StringBuilder}
+ * appends to it directly. Any other {@link Appendable}, such as a {@link java.io.Writer}, receives the output in
+ * chunks, so a large source file is never held in memory as a whole.
+ */
+public final class PrintOutput {
+    private static final int CHUNK_SIZE = 8192;
+
+    private final StringBuilder buffer;
+
+    @Nullable
+    private final Appendable target;
+
+    /**
+     * When set, trees that are unchanged since they were parsed are copied from their original source.
+     */
+    @Nullable
+    private final OriginalSource originalSource;
+
+    /**
+     * When set, the printer is printing a freshly parsed source file or aligning a changed one with its original,
+     * and records where each tree ends up.
+     */
+    @Nullable
+    private final OriginalSource.Capture capture;
+
+    public PrintOutput(Appendable target) {
+        this(target, null, null);
+    }
+
+    public PrintOutput(Appendable target, @Nullable OriginalSource originalSource) {
+        this(target, originalSource, null);
+    }
+
+    PrintOutput(Appendable target, @Nullable OriginalSource originalSource, @Nullable OriginalSource.Capture capture) {
+        this.originalSource = originalSource;
+        this.capture = capture;
+        if (target instanceof StringBuilder) {
+            this.buffer = (StringBuilder) target;
+            this.target = null;
+        } else {
+            this.buffer = new StringBuilder(CHUNK_SIZE * 2);
+            this.target = target;
+        }
+    }
+
+    public PrintOutput append(CharSequence s) {
+        buffer.append(s);
+        if (target != null && buffer.length() >= CHUNK_SIZE) {
+            flush();
+        }
+        return this;
+    }
+
+    public PrintOutput append(CharSequence s, int start, int end) {
+        buffer.append(s, start, end);
+        if (target != null && buffer.length() >= CHUNK_SIZE) {
+            flush();
+        }
+        return this;
+    }
+
+    public PrintOutput append(char c) {
+        buffer.append(c);
+        if (target != null && buffer.length() >= CHUNK_SIZE) {
+            flush();
+        }
+        return this;
+    }
+
+    /**
+     * Print a tree, copying it from the source it was parsed from when this output retains that source and the tree
+     * hasn't changed since. Printers call this for each tree they visit.
+     *
+     * @param tree    The tree to print.
+     * @param printer Prints the tree when its original source isn't available.
+     * @return This output.
+     */
+    public PrintOutput print(@Nullable Tree tree, Consumer<Tree> printer) {
+        if (tree == null) {
+            return this;
+        }
+
+        int start = buffer.length();
+        OriginalSource.Span span = originalSource == null ? null : originalSource.copy(tree, this);
+        if (span == null) {
+            printer.accept(tree);
+            if (capture != null) {
+                capture.record(tree, start, buffer.length());
+            }
+        } else if (capture != null) {
+            capture.copied(span, start);
+        }
+        return this;
+    }
+
+    /**
+     * Hand anything not yet written to the target over to it. Printers call this once they are done.
+     */
+    public void flush() {
+        if (target != null && buffer.length() > 0) {
+            try {
+                target.append(buffer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.internal;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tree ids are made from a prefix chosen at random once per process and a counter, so that they are
+ * as cheap to make as incrementing a number and still unique between trees parsed by different processes.
+ */
+public class TreeIds {
+    private static final long PREFIX = new SecureRandom().nextLong();
+
+    private static final AtomicLong counter = new AtomicLong();
+
+    public static UUID next() {
+        return new UUID(PREFIX, counter.incrementAndGet());
+    }
+}
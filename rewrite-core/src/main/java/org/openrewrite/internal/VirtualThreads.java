@@ -0,0 +1,88 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.internal;
+
+import org.openrewrite.internal.lang.Nullable;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class VirtualThreads {
+    private static final boolean SUPPORTED = probe();
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * On runtimes that support them, an executor that starts a new virtual thread for each task.
+     * Otherwise, a bounded pool of daemon platform threads. Since we compile against Java 8,
+     * the virtual thread executor is looked up reflectively.
+     *
+     * @param fallbackPoolSize The number of platform threads to use when virtual threads are unavailable.
+     * @return An executor suitable for tasks that interleave CPU-bound work with blocking I/O.
+     */
+    public static ExecutorService newExecutor(int fallbackPoolSize) {
+        ExecutorService executor = SUPPORTED ? newVirtualThreadPerTaskExecutor() : null;
+        return executor == null ?
+                Executors.newFixedThreadPool(fallbackPoolSize, new DaemonThreadFactory()) :
+                executor;
+    }
+
+    public static ExecutorService newExecutor() {
+        return newExecutor(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * @return Whether {@link #newExecutor()} starts virtual threads. On JDKs where virtual threads are still a
+     * preview feature, the API is present but only usable with {@code --enable-preview}, so this is decided by
+     * actually creating a virtual thread executor.
+     */
+    public static boolean isSupported() {
+        return SUPPORTED;
+    }
+
+    private static boolean probe() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        if (executor == null) {
+            return false;
+        }
+        executor.shutdown();
+        return true;
+    }
+
+    @Nullable
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            // not on this JDK, or a preview feature that hasn't been enabled
+            return null;
+        }
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "rewrite-worker-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.internal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * A concurrent table of canonical instances, or flyweights. An instance stays in the table for as long as
+ * something else refers to it, so every instance that is in use is still the canonical instance for its key,
+ * and the table only grows with the number of distinct instances in use rather than with every one ever made.
+ * <p>
+ * Hits and misses are counted in the {@code rewrite.intern} metric and the size of the table is reported by the
+ * {@code rewrite.intern.size} gauge, both tagged with the name of the table.
+ *
+ * @param <K> The key type.
+ * @param <V> The type of canonical instance.
+ */
+public class WeakInterner<K, V> {
+    private final ConcurrentMap<K, Interned<K, V>> interned = new ConcurrentHashMap<>();
+    private final ReferenceQueue<V> collected = new ReferenceQueue<>();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public WeakInterner(String name) {
+        this.hits = Counter.builder("rewrite.intern")
+                .description("Lookups of canonical instances")
+                .tag("name", name)
+                .tag("outcome", "hit")
+                .register(Metrics.globalRegistry);
+        this.misses = Counter.builder("rewrite.intern")
+                .description("Lookups of canonical instances")
+                .tag("name", name)
+                .tag("outcome", "miss")
+                .register(Metrics.globalRegistry);
+        Gauge.builder("rewrite.intern.size", this, WeakInterner::size)
+                .description("The number of canonical instances in use")
+                .tag("name", name)
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * @param key    The key of the canonical instance.
+     * @param create Creates the canonical instance when there is none in use.
+     * @return The canonical instance for the key.
+     */
+    public V intern(K key, Function<? super K, ? extends V> create) {
+        // on every lookup, not just misses, so that a table that only gets hits still shrinks. Polling an empty
+        // queue is cheap.
+        expungeCollected();
+
+        Interned<K, V> ref = interned.get(key);
+        V v = ref == null ? null : ref.get();
+        if (v != null) {
+            hits.increment();
+            return v;
+        }
+
+        misses.increment();
+
+        while (true) {
+            V created = create.apply(key);
+            ref = interned.compute(key, (k, existing) -> existing != null && existing.get() != null ?
+                    existing :
+                    new Interned<>(k, created, collected));
+
+            // an existing instance may have been collected since it was found to be in use
+            v = ref.get();
+            if (v != null) {
+                return v;
+            }
+        }
+    }
+
+    public int size() {
+        expungeCollected();
+        return interned.size();
+    }
+
+    public void clear() {
+        interned.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void expungeCollected() {
+        Interned<K, V> ref;
+        while ((ref = (Interned<K, V>) collected.poll()) != null) {
+            interned.remove(ref.key, ref);
+        }
+    }
+
+    private static class Interned<K, V> extends WeakReference<V> {
+        private final K key;
+
+        private Interned(K key, V value, ReferenceQueue<V> queue) {
+            super(value, queue);
+            this.key = key;
+        }
+    }
+}
@@ -17,7 +17,10 @@ package org.openrewrite
 
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.Test
+import org.openrewrite.text.PlainText
+import java.io.StringWriter
 import java.nio.file.Paths
+import java.util.concurrent.Executors
 
 class ChangeTest {
     private val filePath = Paths.get("com/netflix/MyJavaClass.java")
@@ -126,4 +129,42 @@ class ChangeTest {
                 |
         """.trimMargin()).isEqualTo(diff)
     }
+
+    @Test
+    fun binaryFilesDiffer() {
+        val diff = Change.InMemoryDiffEntry(filePath, null, "a\u0000b\n", "a\u0000c\n", setOf("binary.Fix")).diff
+
+        assertThat("""
+            |diff --git ${ab("a")} ${ab("b")}
+            |index 1a23e4b..659b724 100644
+            |--- ${ab("a")}
+            |+++ ${ab("b")}
+            |Binary files differ
+            |
+        """.trimMargin()).isEqualTo(diff)
+    }
+
+    @Test
+    fun batchDiffListsFilesInChangeSetOrder() {
+        fun text(path: String, text: String) = object : PlainText(Tree.randomId(), text, Formatting.EMPTY, emptyList()) {
+            override fun getSourcePath() = path
+        }
+
+        val changes = (1..20).map {
+            Change(text("$it.txt", "Hello World $it!\n"), text("$it.txt", "Hello Jon $it!\n"), setOf("text.Fix"))
+        }
+
+        val patch = Change.diff(changes, null)
+        assertThat(patch).isEqualTo(changes.joinToString("") { it.diff() })
+        assertThat(patch).contains("diff --git a/20.txt b/20.txt")
+
+        val parallelPatch = StringWriter()
+        val executor = Executors.newFixedThreadPool(4)
+        try {
+            Change.diff(changes, null, executor, parallelPatch)
+        } finally {
+            executor.shutdown()
+        }
+        assertThat(parallelPatch.toString()).isEqualTo(patch)
+    }
 }
@@ -15,10 +15,15 @@
  */
 package org.openrewrite
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.Test
 import org.openrewrite.config.ProfileConfiguration
+import org.openrewrite.internal.VirtualThreads
+import org.openrewrite.text.ChangeText
 import org.openrewrite.text.PlainText
+import org.openrewrite.text.PlainTextRefactorVisitor
+import java.util.concurrent.atomic.AtomicInteger
 
 class RefactorTest {
     @Test
@@ -41,6 +46,145 @@ class RefactorTest {
         assertThat(fixed!!.print()).isEqualTo("Hello Jon!")
     }
 
+    @Test
+    fun visitSourcesInParallel() {
+        val sources = (1..10).map { PlainText(Tree.randomId(), "Hello World $it!", Formatting.EMPTY, emptyList()) }
+
+        val changes = Refactor()
+                .parallel(2)
+                .visit(ChangeText().apply { toText = "Hello Jon!" })
+                .fix(sources)
+
+        assertThat(changes.map { it.fixed!!.print() }).containsOnly("Hello Jon!")
+        assertThat(changes.map { it.original!!.print() }).containsAll(sources.map { it.print() })
+    }
+
+    @Test
+    fun visitSourcesOnVirtualThreadsOrFallBackToPlatformThreads() {
+        // "1.8" on JDK 8, "11" on JDK 11
+        if (System.getProperty("java.specification.version").removePrefix("1.").toInt() < 19) {
+            assertThat(VirtualThreads.isSupported()).isFalse()
+        }
+
+        val sources = (1..10).map { PlainText(Tree.randomId(), "Hello World $it!", Formatting.EMPTY, emptyList()) }
+        val refactor = Refactor()
+                .virtualThreads()
+                .visit(ChangeText().apply { toText = "Hello Jon!" })
+
+        // each call gets an executor of its own, so a second call still runs after the first shut its executor down
+        repeat(2) {
+            val changes = refactor.fix(sources)
+            assertThat(changes.map { it.fixed!!.print() }).containsOnly("Hello Jon!")
+            assertThat(changes).hasSize(10)
+        }
+    }
+
+    private fun aToB(visited: AtomicInteger = AtomicInteger()) = object : PlainTextRefactorVisitor() {
+        override fun visitTree(tree: Tree): PlainText {
+            visited.incrementAndGet()
+            val text = tree as PlainText
+            return if (text.print() == "a") text.withText("b") else text
+        }
+    }
+
+    private fun plainText(vararg texts: String) = texts.map { PlainText(Tree.randomId(), it, Formatting.EMPTY, emptyList()) }
+
+    @Test
+    fun onlyRevisitSourcesChangedInPreviousCycle() {
+        val visited = AtomicInteger()
+
+        val changes = Refactor()
+                .visit(aToB(visited))
+                .fix(plainText("a", "c", "d"))
+
+        assertThat(changes.map { it.fixed!!.print() }).containsExactly("b")
+
+        // every source on the first cycle, and only the changed source on the second
+        assertThat(visited.get()).isEqualTo(4)
+    }
+
+    @Test
+    fun emitChangesAsSourcesReachTheirFixedPoint() {
+        val events = mutableListOf<String>()
+
+        // "a" becomes "b" on the first cycle, while "x" grows by one dot on each of the first three cycles
+        val visitor = object : PlainTextRefactorVisitor() {
+            override fun visitTree(tree: Tree): PlainText {
+                val text = tree as PlainText
+                events.add("visit ${text.print()}")
+                return when {
+                    text.print() == "a" -> text.withText("b")
+                    text.print().startsWith("x") && text.print().length < 4 -> text.withText(text.print() + ".")
+                    else -> text
+                }
+            }
+        }
+
+        Refactor()
+                .visit(visitor)
+                .fix(plainText("a", "x", "c"), 5) { events.add("emit ${it.original!!.print()} -> ${it.fixed!!.print()}") }
+
+        // "a" is emitted as soon as the second cycle finds it unchanged, before "x" is visited on later cycles
+        assertThat(events).containsExactly(
+                "visit a", "visit x", "visit c",
+                "visit b", "emit a -> b", "visit x.",
+                "visit x..",
+                "visit x...", "emit x -> x..."
+        )
+    }
+
+    @Test
+    fun ignoreRewritesThatPrintTheSame() {
+        val rebuild = object : PlainTextRefactorVisitor() {
+            override fun visitTree(tree: Tree): PlainText = (tree as PlainText).withText(tree.print())
+        }
+
+        val changes = Refactor().visit(rebuild, aToB()).fix(plainText("a", "c"))
+
+        // "c" is rebuilt but prints the same, so only "a" is reported, and only by the visitor that changed it
+        assertThat(changes.map { it.original!!.print() to it.fixed!!.print() }).containsExactly("a" to "b")
+        assertThat(changes.first().rulesThatMadeChanges).hasSize(1)
+    }
+
+    @Test
+    fun abandonVisitorsThatExceedTheirBudgetForASource() {
+        val meterRegistry = SimpleMeterRegistry()
+
+        val changes = Refactor()
+                .setMeterRegistry(meterRegistry)
+                .setNodeLimitPerSource(0)
+                .visit(aToB())
+                .fix(plainText("a"))
+
+        assertThat(changes).isEmpty()
+        assertThat(meterRegistry.get("rewrite.visitor.timeouts").tag("budget", "nodes").counter().count())
+                .isEqualTo(1.0)
+    }
+
+    @Test
+    fun visitorsWithBudgetingOffDontUseUpTheBudgetForASource() {
+        val printer = object : AbstractSourceVisitor<Int>() {
+            init {
+                setBudgetingOff()
+            }
+
+            override fun defaultTo(t: Tree?) = 0
+        }
+
+        val changes = Refactor()
+                .setNodeLimitPerSource(1)
+                .visit(object : PlainTextRefactorVisitor() {
+                    override fun visitTree(tree: Tree): PlainText {
+                        repeat(1000) { printer.visit(tree) }
+                        val text = tree as PlainText
+                        return if (text.print() == "a") text.withText("b") else text
+                    }
+                })
+                .fix(plainText("a"))
+
+        assertThat(changes.map { it.fixed!!.print() }).containsExactly("b")
+    }
+
     @Test
     fun scanProfileAndDeclarativeRule() {
         val plan = RefactorPlan.builder()
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.internal
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import kotlin.random.Random
+
+class PersistentListTest {
+    @Test
+    fun updatesLeaveTheOriginalUntouched() {
+        val original = PersistentList.from(listOf("a", "b", "c"))
+
+        assertThat(original.plus(1, "x")).containsExactly("a", "x", "b", "c")
+        assertThat(original.minus(0)).containsExactly("b", "c")
+        assertThat(original.with(2, "z")).containsExactly("a", "b", "z")
+        assertThat(original).containsExactly("a", "b", "c")
+    }
+
+    @Test
+    fun replacingAnElementWithItselfReturnsTheSameList() {
+        val list = PersistentList.from(listOf("a", "b"))
+        assertThat(list.with(0, list[0])).isSameAs(list)
+        assertThat(PersistentList.from(list)).isSameAs(list)
+    }
+
+    @Test
+    fun behavesLikeAnArrayList() {
+        val random = Random(0)
+        val expected = (0 until 50).toMutableList()
+        var actual = PersistentList.from(expected)
+
+        for (n in 0 until 10_000) {
+            when {
+                expected.isEmpty() || random.nextInt(3) == 0 -> {
+                    val i = random.nextInt(expected.size + 1)
+                    expected.add(i, n)
+                    actual = actual.plus(i, n)
+                }
+                random.nextBoolean() -> {
+                    val i = random.nextInt(expected.size)
+                    expected.removeAt(i)
+                    actual = actual.minus(i)
+                }
+                else -> {
+                    val i = random.nextInt(expected.size)
+                    expected[i] = -n
+                    actual = actual.with(i, -n)
+                }
+            }
+        }
+
+        assertThat(actual).isEqualTo(expected)
+        assertThat(actual.toList()).isEqualTo(expected)
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.internal
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+
+class WeakInternerTest {
+    @Test
+    fun internCanonicalInstances() {
+        val interner = WeakInterner<String, StringBuilder>("test")
+
+        val first = interner.intern("a") { StringBuilder(it) }
+        val second = interner.intern("a") { StringBuilder(it) }
+        val other = interner.intern("b") { StringBuilder(it) }
+
+        assertThat(second).isSameAs(first)
+        assertThat(other).isNotSameAs(first)
+        assertThat(interner.intern("b") { StringBuilder(it) }).isSameAs(other)
+        assertThat(interner.size()).isEqualTo(2)
+    }
+
+    @Test
+    fun dropInstancesThatAreNoLongerInUse() {
+        val interner = WeakInterner<String, StringBuilder>("test")
+
+        val inUse = interner.intern("a") { StringBuilder(it) }
+        internUnreferenced(interner, "b")
+
+        for (i in 1..100) {
+            if (interner.size() == 1) {
+                break
+            }
+            System.gc()
+            Thread.sleep(10)
+        }
+
+        assertThat(interner.size()).isEqualTo(1)
+        assertThat(interner.intern("a") { StringBuilder(it) }).isSameAs(inUse)
+    }
+
+    private fun internUnreferenced(interner: WeakInterner<String, StringBuilder>, key: String) {
+        interner.intern(key) { StringBuilder(it) }
+    }
+}
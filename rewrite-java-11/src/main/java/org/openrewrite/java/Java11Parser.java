@@ -25,6 +25,7 @@ import com.sun.tools.javac.util.Options;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import org.openrewrite.Formatting;
+import org.openrewrite.internal.OriginalSource;
 import org.openrewrite.internal.lang.NonNullApi;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.java.tree.J;
@@ -79,17 +80,22 @@ public class Java11Parser implements JavaParser {
     private final ResettableLog compilerLog = new ResettableLog(context);
     private final Collection<JavaStyle> styles;
 
+    @Nullable
+    private final OriginalSource originalSource;
+
     private Java11Parser(@Nullable List<Path> classpath,
                          Charset charset,
                          boolean relaxedClassTypeMatching,
                          MeterRegistry meterRegistry,
                          boolean logCompilationWarningsAndErrors,
-                         Collection<JavaStyle> styles) {
+                         Collection<JavaStyle> styles,
+                         @Nullable OriginalSource originalSource) {
         this.meterRegistry = meterRegistry;
         this.classpath = classpath;
         this.charset = charset;
         this.relaxedClassTypeMatching = relaxedClassTypeMatching;
         this.styles = styles;
+        this.originalSource = originalSource;
         this.pfm = new JavacFileManager(context, true, charset);
 
         // otherwise, consecutive string literals in binary expressions are concatenated by the parser, losing the original
@@ -181,11 +187,12 @@ public class Java11Parser implements JavaParser {
                             var path = cuByPath.getKey();
                             logger.trace("Building AST for {}", path.toAbsolutePath().getFileName());
                             try {
+                                var source = Files.readString(path, charset);
                                 Java11ParserVisitor parser = new Java11ParserVisitor(
                                         relativeTo == null ? path : relativeTo.relativize(path),
-                                        Files.readString(path, charset),
-                                        relaxedClassTypeMatching, styles);
-                                return (J.CompilationUnit) parser.scan(cuByPath.getValue(), Formatting.EMPTY);
+                                        source, relaxedClassTypeMatching, styles);
+                                var cu = (J.CompilationUnit) parser.scan(cuByPath.getValue(), Formatting.EMPTY);
+                                return originalSource == null ? cu : originalSource.retain(cu, source);
                             } catch (IOException e) {
                                 throw new UncheckedIOException(e);
                             }
@@ -269,7 +276,7 @@ public class Java11Parser implements JavaParser {
         @Override
         public Java11Parser build() {
             return new Java11Parser(classpath, charset, relaxedClassTypeMatching,
-                    meterRegistry, logCompilationWarningsAndErrors, styles);
+                    meterRegistry, logCompilationWarningsAndErrors, styles, originalSource);
         }
     }
 }
@@ -1453,6 +1453,8 @@ public class Java11ParserVisitor extends TreePathScanner<J, Formatting> {
                     List<Symbol> stackWithSym = new ArrayList<>(stack);
                     stackWithSym.add(sym);
 
+                    complete(sym);
+
                     var fields = (sym.members_field == null ? Stream.empty() : stream(sym.members_field.getSymbols().spliterator(), false))
                             .filter(elem -> elem instanceof Symbol.VarSymbol)
                             .map(Symbol.VarSymbol.class::cast)
@@ -1468,7 +1470,7 @@ public class Java11ParserVisitor extends TreePathScanner<J, Formatting> {
                     return JavaType.Class.build(sym.className(), fields,
                             classType.typarams_field == null ? emptyList() : classType.typarams_field.stream().map(tParam -> type(tParam, stackWithSym, true)).filter(Objects::nonNull).collect(toList()),
                             symType.interfaces_field == null ? emptyList() : symType.interfaces_field.stream().map(iParam -> type(iParam, stackWithSym, false)).filter(Objects::nonNull).collect(toList()),
-                            null,
+                            constructors(sym, stackWithSym),
                             TypeUtils.asClass(type(classType.supertype_field, stackWithSym)),
                             relaxedClassTypeMatching);
                 }
@@ -1486,6 +1488,45 @@ public class Java11ParserVisitor extends TreePathScanner<J, Formatting> {
         }
     }
 
+    /**
+     * Read a class from a dependency that javac hasn't needed to read yet, so that its members and constructors
+     * are captured from the classpath of the code being parsed.
+     */
+    private void complete(Symbol.ClassSymbol sym) {
+        if (sym.members_field == null) {
+            try {
+                sym.complete();
+            } catch (Symbol.CompletionFailure ignored) {
+                // not on the classpath, so constructors are reflected from the class type if they are ever needed
+            }
+        }
+    }
+
+    /**
+     * Constructor parameter types are shallow, since they are only used to match and construct invocations.
+     */
+    @Nullable
+    private List<JavaType.Method> constructors(Symbol.ClassSymbol sym, List<Symbol> stack) {
+        if (sym.members_field == null) {
+            return null;
+        }
+
+        var selfType = new JavaType.ShallowClass(sym.className());
+        return stream(sym.members_field.getSymbols().spliterator(), false)
+                .filter(elem -> elem instanceof Symbol.MethodSymbol && elem.isConstructor() && (elem.flags() & Flags.PUBLIC) != 0)
+                .map(Symbol.MethodSymbol.class::cast)
+                .map(ctor -> {
+                    var signature = new JavaType.Method.Signature(selfType, ctor.type.getParameterTypes().stream()
+                            .map(pt -> type(pt, stack, true))
+                            .filter(Objects::nonNull)
+                            .collect(toList()));
+                    return JavaType.Method.build(selfType, "<constructor>", signature, signature,
+                            ctor.params().stream().map(p -> p.name.toString()).collect(toList()),
+                            filteredFlags(ctor));
+                })
+                .collect(toList());
+    }
+
     @Nullable
     private JavaType type(Tree t) {
         return type(((JCTree) t).type);
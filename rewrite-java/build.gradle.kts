@@ -19,9 +19,6 @@ dependencies {
     implementation("org.slf4j:slf4j-api:1.7.+")
     implementation("commons-lang:commons-lang:latest.release")
 
-    implementation("com.koloboke:koloboke-api-jdk8:latest.release")
-    implementation("com.koloboke:koloboke-impl-jdk8:latest.release")
-
     api("com.fasterxml.jackson.core:jackson-annotations:latest.release")
     implementation("com.fasterxml.jackson.core:jackson-databind:latest.release")
 
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java;
+
+import org.openrewrite.Tree;
+import org.openrewrite.internal.lang.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A search visitor that adds what it finds to a single mutable collection for the duration of a visit, rather
+ * than returning a new collection from every visit method to be reduced with those of its siblings.
+ * <p>
+ * Visit methods add results with {@link #collect(Object)}, and otherwise return either what the default
+ * implementation returns or {@link #defaultTo(Tree)} when they don't descend any further. The collection
+ * of everything found is what {@link #visit(Tree)} returns.
+ *
+ * @param <T> The type of result.
+ * @param <C> The type of collection to gather results into.
+ */
+public abstract class AbstractJavaSourceCollector<T, C extends Collection<T>> extends AbstractJavaSourceVisitor<C> {
+    private final ThreadLocal<C> results = new ThreadLocal<>();
+
+    /**
+     * @return A new, empty, mutable collection to gather the results of one visit into.
+     */
+    protected abstract C newCollection();
+
+    protected C collect(T result) {
+        C c = defaultTo(null);
+        c.add(result);
+        return c;
+    }
+
+    @Override
+    public C defaultTo(@Nullable Tree t) {
+        C c = results.get();
+        return c == null ? newCollection() : c;
+    }
+
+    @Override
+    public C reduce(C r1, C r2) {
+        // every visit method returns the same collection
+        return r1;
+    }
+
+    @Override
+    public C visit(@Nullable Tree tree) {
+        if (results.get() != null) {
+            return super.visit(tree);
+        }
+
+        C c = newCollection();
+        results.set(c);
+        try {
+            super.visit(tree);
+            return c;
+        } finally {
+            results.remove();
+        }
+    }
+
+    @Override
+    public C visit(@Nullable List<? extends Tree> trees) {
+        if (results.get() != null) {
+            return super.visit(trees);
+        }
+
+        C c = newCollection();
+        results.set(c);
+        try {
+            super.visit(trees);
+            return c;
+        } finally {
+            results.remove();
+        }
+    }
+}
@@ -72,7 +72,7 @@ public final class AddAnnotation {
 
                     c = c.withAnnotations(fixedAnnotations);
                     if (classDecl.getAnnotations().isEmpty()) {
-                        String prefix = formatter.findIndent(0, c).getPrefix();
+                        String prefix = getFormatter().findIndent(0, c).getPrefix();
 
                         // special case, where a top-level class is often un-indented completely
                         String cdPrefix = c.getPrefix();
@@ -109,9 +109,9 @@ public final class AddAnnotation {
                     List<J.Annotation> fixedAnnotations = new ArrayList<>(v.getAnnotations());
 
                     if (!isMethodOrLambdaParameter && multiVariable.getPrefix().chars().filter(c -> c == '\n').count() < 2) {
-                        List<?> statements = enclosingBlock().getStatements();
-                        for (int i = 1; i < statements.size(); i++) {
-                            if (statements.get(i) == multiVariable) {
+                        int i = 0;
+                        for (Object statement : enclosingBlock().getStatements()) {
+                            if (i++ > 0 && statement == multiVariable) {
                                 v = v.withPrefix("\n" + v.getPrefix());
                                 break;
                             }
@@ -122,7 +122,7 @@ public final class AddAnnotation {
 
                     v = v.withAnnotations(fixedAnnotations);
                     if (multiVariable.getAnnotations().isEmpty()) {
-                        String prefix = isMethodOrLambdaParameter ? " " : formatter.format(enclosingBlock()).getPrefix();
+                        String prefix = isMethodOrLambdaParameter ? " " : getFormatter().format(enclosingBlock()).getPrefix();
 
                         if (!v.getModifiers().isEmpty()) {
                             v = v.withModifiers(formatFirstPrefix(v.getModifiers(), prefix));
@@ -151,7 +151,7 @@ public final class AddAnnotation {
 
                     m = m.withAnnotations(fixedAnnotations);
                     if (method.getAnnotations().isEmpty()) {
-                        String prefix = formatter.findIndent(0, method).getPrefix();
+                        String prefix = getFormatter().findIndent(0, method).getPrefix();
 
                         if (!m.getModifiers().isEmpty()) {
                             m = m.withModifiers(formatFirstPrefix(m.getModifiers(), prefix));
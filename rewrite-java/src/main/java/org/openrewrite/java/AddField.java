@@ -17,11 +17,11 @@ package org.openrewrite.java;
 
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Tags;
+import org.openrewrite.internal.PersistentList;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.JavaType;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import static java.util.Collections.emptyList;
@@ -82,14 +82,10 @@ public final class AddField {
                                 classType,
                                 format(" ")
                         )),
-                        formatter.format(body)
+                        getFormatter().format(body)
                 );
 
-                List<J> statements = new ArrayList<>(body.getStatements().size() + 1);
-                statements.add(newField);
-                statements.addAll(body.getStatements());
-
-                c = c.withBody(body.withStatements(statements));
+                c = c.withBody(body.withStatements(PersistentList.from(body.getStatements()).plus(0, newField)));
             }
 
             return c;
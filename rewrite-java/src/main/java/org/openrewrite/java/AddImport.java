@@ -20,6 +20,7 @@ import io.micrometer.core.instrument.Tags;
 import lombok.EqualsAndHashCode;
 import org.openrewrite.Formatting;
 import org.openrewrite.Validated;
+import org.openrewrite.internal.PersistentList;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.java.search.FindType;
 import org.openrewrite.java.search.HasType;
@@ -28,8 +29,6 @@ import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.JavaType;
 import org.openrewrite.java.tree.TreeBuilder;
 
-import java.util.ArrayList;
-import java.util.List;
 
 import static org.openrewrite.Formatting.*;
 import static org.openrewrite.Tree.randomId;
@@ -108,9 +107,7 @@ public class AddImport extends JavaRefactorVisitor {
                 staticMethod != null,
                 EMPTY);
 
-        List<J.Import> imports = new ArrayList<>(cu.getImports());
-
-        if (imports.isEmpty()) {
+        if (cu.getImports().isEmpty()) {
             importToAdd = cu.getPackageDecl() == null ?
                     importToAdd.withPrefix(cu.getClasses().get(0).getPrefix() + "\n\n") :
                     importToAdd.withPrefix("\n\n");
@@ -123,8 +120,7 @@ public class AddImport extends JavaRefactorVisitor {
             }
         }
 
-        imports.add(importToAdd);
-        cu = cu.withImports(imports);
+        cu = cu.withImports(PersistentList.from(cu.getImports()).plus(importToAdd));
 
         OrderImports orderImports = cu.getStyle(ImportLayoutStyle.class)
                 .map(ImportLayoutStyle::orderImports)
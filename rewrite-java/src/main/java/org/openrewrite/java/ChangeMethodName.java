@@ -55,6 +55,11 @@ public class ChangeMethodName extends JavaRefactorVisitor {
                 .and(required("name", name));
     }
 
+    @Override
+    protected boolean isApplicable(J.CompilationUnit cu) {
+        return methodMatcher.matchesAnyTypeInUse(cu);
+    }
+
     @Override
     public J visitMethod(J.MethodDecl method) {
         J.MethodDecl m = refactor(method, super::visitMethod);
@@ -47,6 +47,11 @@ public class ChangeMethodTargetToStatic extends JavaRefactorVisitor {
                 .and(required("target.type", targetType));
     }
 
+    @Override
+    protected boolean isApplicable(J.CompilationUnit cu) {
+        return methodMatcher.matchesAnyTypeInUse(cu);
+    }
+
     @Override
     public J visitMethodInvocation(J.MethodInvocation method) {
         if(methodMatcher.matches(method)) {
@@ -53,6 +53,11 @@ public class ChangeMethodTargetToVariable extends JavaRefactorVisitor {
                 .and(required("variable.type", variableType.getFullyQualifiedName()));
     }
 
+    @Override
+    protected boolean isApplicable(J.CompilationUnit cu) {
+        return methodMatcher.matchesAnyTypeInUse(cu);
+    }
+
     @Override
     public J visitMethodInvocation(J.MethodInvocation method) {
         if(methodMatcher.matches(method)) {
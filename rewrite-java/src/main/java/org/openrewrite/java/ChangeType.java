@@ -62,6 +62,11 @@ public class ChangeType extends JavaRefactorVisitor {
         return Tags.of("type", type, "target.type", targetType.getFullyQualifiedName());
     }
 
+    @Override
+    protected boolean isApplicable(J.CompilationUnit cu) {
+        return cu.getTypesInUse().contains(type);
+    }
+
     @Override
     public J visitCompilationUnit(J.CompilationUnit cu) {
         maybeAddImport(targetType);
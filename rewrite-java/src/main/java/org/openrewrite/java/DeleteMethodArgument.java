@@ -17,10 +17,10 @@ package org.openrewrite.java;
 
 import org.openrewrite.Formatting;
 import org.openrewrite.Validated;
+import org.openrewrite.internal.PersistentList;
 import org.openrewrite.java.tree.Expression;
 import org.openrewrite.java.tree.J;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import static java.util.Collections.singletonList;
@@ -50,6 +50,11 @@ public class DeleteMethodArgument extends JavaRefactorVisitor {
                 .and(required("index", index));
     }
 
+    @Override
+    protected boolean isApplicable(J.CompilationUnit cu) {
+        return methodMatcher.matchesAnyTypeInUse(cu);
+    }
+
     @Override
     public J visitMethodInvocation(J.MethodInvocation method) {
         if(methodMatcher.matches(method)) {
@@ -78,9 +83,7 @@ public class DeleteMethodArgument extends JavaRefactorVisitor {
             if (scope.isScope(method) && originalArgs.stream()
                     .filter(a -> !(a instanceof J.Empty))
                     .count() >= index + 1) {
-                List<Expression> args = new ArrayList<>(method.getArgs().getArgs());
-
-                args.remove(index);
+                List<Expression> args = PersistentList.from(originalArgs).minus(index);
                 if (args.isEmpty()) {
                     args = singletonList(new J.Empty(randomId(), Formatting.EMPTY));
                 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.openrewrite.Cursor;
+import org.openrewrite.RefactorVisitor;
+import org.openrewrite.SourceFile;
+import org.openrewrite.Tree;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.tree.J;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Applies several visitors in a single traversal of each compilation unit. The tree is walked once, and on the way
+ * back up each element is handed to every delegate in turn, without the delegates descending into it themselves.
+ * <p>
+ * Only visitors that don't need to see each other's output within a cycle should be fused. In particular,
+ * a delegate sees each element after its children have been refactored by all delegates, so it shouldn't depend
+ * on state that it gathers from an element before visiting that element's children. Changes are attributed to
+ * this visitor's name rather than to the delegates, just as for {@link org.openrewrite.CompositeRefactorVisitor}.
+ */
+public class FusedJavaRefactorVisitor extends JavaRefactorVisitor {
+    private final String name;
+    private final List<JavaRefactorVisitor> delegates;
+
+    private final ThreadLocal<List<JavaRefactorVisitor>> applicable = ThreadLocal.withInitial(() -> emptyList());
+
+    public FusedJavaRefactorVisitor(String name, List<JavaRefactorVisitor> delegates) {
+        this.name = name;
+        this.delegates = delegates;
+        setCursoringOn();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Iterable<Tag> getTags() {
+        return Tags.of("name", name);
+    }
+
+    @Override
+    public boolean isIdempotent() {
+        return delegates.stream().allMatch(RefactorVisitor::isIdempotent);
+    }
+
+    @Override
+    public boolean isApplicable(SourceFile source) {
+        return delegates.stream().anyMatch(d -> d.isApplicable(source));
+    }
+
+    @Override
+    public void next() {
+        super.next();
+        delegates.forEach(RefactorVisitor::next);
+    }
+
+    @Override
+    public List<RefactorVisitor<? extends J>> andThen() {
+        List<RefactorVisitor<? extends J>> andThen = new ArrayList<>(super.andThen());
+        for (JavaRefactorVisitor delegate : delegates) {
+            andThen.addAll(delegate.andThen());
+        }
+        return andThen;
+    }
+
+    @Override
+    public J visitCompilationUnit(J.CompilationUnit cu) {
+        List<JavaRefactorVisitor> applicableToCu = delegates.stream()
+                .filter(d -> d.isApplicable(cu))
+                .collect(toList());
+
+        applicable.set(applicableToCu);
+        try {
+            return fuse(super.visitCompilationUnit(cu), null);
+        } finally {
+            applicable.set(emptyList());
+        }
+    }
+
+    @Override
+    protected <T1 extends Tree> T1 refactor(@Nullable Tree tree) {
+        T1 t = super.refactor(tree);
+        return t == null ? null : fuse(t, getCursor());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T1 extends Tree> T1 fuse(T1 tree, @Nullable Cursor parent) {
+        // delegates only reach the compilation unit itself after everything in it has been visited, so they
+        // format with this visitor's formatter for it, which is passed along with each element
+        JavaFormatter cuFormatter = getFormatter();
+        Tree t = tree;
+        for (JavaRefactorVisitor delegate : applicable.get()) {
+            t = delegate.visitWithoutDescending(t, parent, cuFormatter);
+        }
+        return (T1) t;
+    }
+}
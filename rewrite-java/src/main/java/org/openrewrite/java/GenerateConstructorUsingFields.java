@@ -17,11 +17,11 @@ package org.openrewrite.java;
 
 import org.openrewrite.Formatting;
 import org.openrewrite.Tree;
+import org.openrewrite.internal.PersistentList;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.Statement;
 import org.openrewrite.java.tree.TreeBuilder;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
@@ -48,13 +48,15 @@ public class GenerateConstructorUsingFields extends JavaRefactorVisitor {
     @Override
     public J visitClassDecl(J.ClassDecl classDecl) {
         if (scope.isScope(classDecl) && !hasRequiredArgsConstructor(classDecl)) {
-            List<J> statements = new ArrayList<>(classDecl.getBody().getStatements());
+            List<J> statements = classDecl.getBody().getStatements();
 
             int lastField = -1;
-            for (int i = 0; i < statements.size(); i++) {
-                if (statements.get(i) instanceof J.VariableDecls) {
+            int i = 0;
+            for (J statement : statements) {
+                if (statement instanceof J.VariableDecls) {
                     lastField = i;
                 }
+                i++;
             }
 
             List<Statement> constructorParams = fields.stream()
@@ -68,11 +70,11 @@ public class GenerateConstructorUsingFields extends JavaRefactorVisitor {
                             EMPTY))
                     .collect(toList());
 
-            for (int i = 1; i < constructorParams.size(); i++) {
-                constructorParams.set(i, constructorParams.get(i).withFormatting(format(" ")));
+            for (int j = 1; j < constructorParams.size(); j++) {
+                constructorParams.set(j, constructorParams.get(j).withFormatting(format(" ")));
             }
 
-            Formatting constructorFormatting = formatter.format(classDecl.getBody());
+            Formatting constructorFormatting = getFormatter().format(classDecl.getBody());
             J.MethodDecl constructor = new J.MethodDecl(randomId(), emptyList(),
                     singletonList(new J.Modifier.Public(randomId(), EMPTY)),
                     null,
@@ -81,7 +83,7 @@ public class GenerateConstructorUsingFields extends JavaRefactorVisitor {
                     new J.MethodDecl.Parameters(randomId(), constructorParams, EMPTY),
                     null,
                     new J.Block<>(randomId(), null, emptyList(), format(" "),
-                            new J.Block.End(randomId(), format(formatter.findIndent(classDecl.getBody().getIndent(),
+                            new J.Block.End(randomId(), format(getFormatter().findIndent(classDecl.getBody().getIndent(),
                                     classDecl.getBody().getStatements().toArray(new Tree[0])).getPrefix()))),
                     null,
                     constructorFormatting.withPrefix("\n" + constructorFormatting.getPrefix()));
@@ -91,9 +93,7 @@ public class GenerateConstructorUsingFields extends JavaRefactorVisitor {
                 andThen(new AddAssignmentsToConstructor(constructor));
             }
 
-            statements.add(lastField + 1, constructor);
-
-            return classDecl.withBody(classDecl.getBody().withStatements(statements));
+            return classDecl.withBody(classDecl.getBody().withStatements(PersistentList.from(statements).plus(lastField + 1, constructor)));
         }
 
         return super.visitClassDecl(classDecl);
@@ -58,6 +58,11 @@ public class InsertMethodArgument extends JavaRefactorVisitor {
         return false;
     }
 
+    @Override
+    protected boolean isApplicable(J.CompilationUnit cu) {
+        return methodMatcher.matchesAnyTypeInUse(cu);
+    }
+
     @Override
     public J visitMethodInvocation(J.MethodInvocation method) {
         if(methodMatcher.matches(method)) {
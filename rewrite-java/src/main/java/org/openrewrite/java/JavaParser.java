@@ -18,6 +18,7 @@ package org.openrewrite.java;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Metrics;
 import org.openrewrite.Parser;
+import org.openrewrite.internal.OriginalSource;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.java.style.ImportLayoutStyle;
 import org.openrewrite.java.style.TabAndIndentStyle;
@@ -140,6 +141,9 @@ public interface JavaParser extends Parser<J.CompilationUnit> {
         protected boolean logCompilationWarningsAndErrors = true;
         protected List<JavaStyle> styles = new ArrayList<>();
 
+        @Nullable
+        protected OriginalSource originalSource;
+
         public B logCompilationWarningsAndErrors(boolean logCompilationWarningsAndErrors) {
             this.logCompilationWarningsAndErrors = logCompilationWarningsAndErrors;
             return (B) this;
@@ -155,6 +159,15 @@ public interface JavaParser extends Parser<J.CompilationUnit> {
             return (B) this;
         }
 
+        /**
+         * @param originalSource Retains the source of each compilation unit parsed, or {@code null} to retain nothing.
+         * @return This builder.
+         */
+        public B retainOriginalSource(@Nullable OriginalSource originalSource) {
+            this.originalSource = originalSource;
+            return (B) this;
+        }
+
         public B relaxedClassTypeMatching(boolean relaxedClassTypeMatching) {
             this.relaxedClassTypeMatching = relaxedClassTypeMatching;
             return (B) this;
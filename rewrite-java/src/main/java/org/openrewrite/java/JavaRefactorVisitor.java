@@ -17,11 +17,58 @@ package org.openrewrite.java;
 
 import org.openrewrite.AbstractRefactorVisitor;
 import org.openrewrite.Cursor;
+import org.openrewrite.SourceFile;
+import org.openrewrite.Tree;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.java.tree.*;
 
 public class JavaRefactorVisitor extends AbstractRefactorVisitor<J> implements JavaSourceVisitor<J> {
-    protected JavaFormatter formatter;
+    /**
+     * Held per thread, since the same visitor may visit several sources at once on different threads.
+     */
+    private final ThreadLocal<JavaFormatter> formatter = new ThreadLocal<>();
+
+    /**
+     * @return A formatter for the compilation unit being visited on this thread.
+     */
+    protected JavaFormatter getFormatter() {
+        return formatter.get();
+    }
+
+    @Override
+    public boolean isApplicable(SourceFile source) {
+        return !(source instanceof J.CompilationUnit) || isApplicable((J.CompilationUnit) source);
+    }
+
+    /**
+     * Override to skip compilation units that this visitor cannot change, based on
+     * {@link J.CompilationUnit#getTypesInUse()} or other cheap checks.
+     *
+     * @param cu The compilation unit about to be visited.
+     * @return Whether to visit the compilation unit.
+     */
+    protected boolean isApplicable(J.CompilationUnit cu) {
+        return true;
+    }
+
+    /**
+     * Apply this visitor to a single tree element of a compilation unit that another visitor is walking, formatting
+     * with that visitor's formatter for the compilation unit rather than one of this visitor's own.
+     *
+     * @param tree      The tree element to refactor.
+     * @param parent    The cursor of the tree element's parent, if any.
+     * @param formatter The formatter for the compilation unit the tree element is in.
+     * @return The refactored tree element.
+     */
+    J visitWithoutDescending(Tree tree, @Nullable Cursor parent, JavaFormatter formatter) {
+        JavaFormatter previous = this.formatter.get();
+        this.formatter.set(formatter);
+        try {
+            return visitWithoutDescending(tree, parent);
+        } finally {
+            this.formatter.set(previous);
+        }
+    }
 
     @Override
     public J visitStatement(Statement statement) {
@@ -139,7 +186,7 @@ public class JavaRefactorVisitor extends AbstractRefactorVisitor<J> implements J
 
     @Override
     public J visitCompilationUnit(J.CompilationUnit cu) {
-        formatter = new JavaFormatter(cu);
+        formatter.set(new JavaFormatter(cu));
         J.CompilationUnit c = cu;
         c = c.withPackageDecl(refactor(c.getPackageDecl()));
         c = c.withImports(refactor(c.getImports()));
@@ -15,6 +15,7 @@
  */
 package org.openrewrite.java;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.NonFinal;
@@ -30,10 +31,8 @@ import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.JavaType;
 import org.openrewrite.java.tree.TypeUtils;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import static java.util.stream.Collectors.joining;
@@ -44,6 +43,14 @@ public class MethodMatcher {
     private Pattern methodNamePattern;
     private Pattern argumentPattern;
 
+    /**
+     * Matching a type means matching the names of its supertypes in turn, and the same declaring types
+     * come up over and over again in a visit. Keyed by name, so a long-lived matcher doesn't keep any type
+     * from being collected, and looked up without locking from every thread a visit runs on.
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Boolean> targetTypeNameMatches = new ConcurrentHashMap<>();
+
     public MethodMatcher(String signature) {
         RefactorMethodSignatureParser parser = new RefactorMethodSignatureParser(new CommonTokenStream(new AspectJLexer(
                 CharStreams.fromString(signature))));
@@ -120,11 +127,50 @@ public class MethodMatcher {
                 argumentPattern.matcher(signaturePattern).matches();
     }
 
+    /**
+     * A cheap check of whether any method in a compilation unit could match, without visiting it.
+     *
+     * @param cu The compilation unit to check.
+     * @return {@code false} if no type referenced by the compilation unit matches the target type pattern.
+     */
+    public boolean matchesAnyTypeInUse(J.CompilationUnit cu) {
+        for (String type : cu.getTypesInUse()) {
+            if (targetTypePattern.matcher(type).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     boolean matchesTargetType(@Nullable JavaType.FullyQualified type) {
-        JavaType.Class asClass = TypeUtils.asClass(type);
-        return type != null && (targetTypePattern.matcher(type.getFullyQualifiedName()).matches() ||
-                type != JavaType.Class.OBJECT &&
-                        (asClass == null || matchesTargetType(asClass.getSupertype() == null ? JavaType.Class.OBJECT : asClass.getSupertype())));
+        if (type == null) {
+            return false;
+        }
+
+        for (JavaType.FullyQualified t = type; ; ) {
+            if (matchesTargetTypeName(t.getFullyQualifiedName())) {
+                return true;
+            }
+
+            if (t == JavaType.Class.OBJECT) {
+                return false;
+            }
+
+            JavaType.Class asClass = TypeUtils.asClass(t);
+            if (asClass == null) {
+                return true;
+            }
+            t = asClass.getSupertype() == null ? JavaType.Class.OBJECT : asClass.getSupertype();
+        }
+    }
+
+    private boolean matchesTargetTypeName(String fullyQualifiedName) {
+        Boolean matches = targetTypeNameMatches.get(fullyQualifiedName);
+        if (matches == null) {
+            matches = targetTypePattern.matcher(fullyQualifiedName).matches();
+            targetTypeNameMatches.put(fullyQualifiedName, matches);
+        }
+        return matches;
     }
 
     @Nullable
@@ -23,6 +23,7 @@ import org.openrewrite.java.tree.J;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -132,8 +133,9 @@ public class OrderImports extends JavaRefactorVisitor {
             return cu.withImports(orderedImports);
         }
 
-        for (int i = 0; i < orderedImports.size(); i++) {
-            if (orderedImports.get(i) != cu.getImports().get(i)) {
+        Iterator<J.Import> imports = cu.getImports().iterator();
+        for (J.Import orderedImport : orderedImports) {
+            if (orderedImport != imports.next()) {
                 return cu.withImports(orderedImports);
             }
         }
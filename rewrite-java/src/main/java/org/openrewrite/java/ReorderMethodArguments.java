@@ -54,6 +54,11 @@ public class ReorderMethodArguments extends JavaRefactorVisitor {
                 .and(required("order", order));
     }
 
+    @Override
+    protected boolean isApplicable(J.CompilationUnit cu) {
+        return methodMatcher.matchesAnyTypeInUse(cu);
+    }
+
     @Override
     public J visitMethodInvocation(J.MethodInvocation method) {
         if(methodMatcher.matches(method)) {
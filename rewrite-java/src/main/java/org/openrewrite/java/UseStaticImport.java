@@ -25,6 +25,11 @@ public class UseStaticImport extends JavaRefactorVisitor {
         this.methodMatcher = new MethodMatcher(method);
     }
 
+    @Override
+    protected boolean isApplicable(J.CompilationUnit cu) {
+        return methodMatcher.matchesAnyTypeInUse(cu);
+    }
+
     @Override
     public J visitMethodInvocation(J.MethodInvocation method) {
         if (methodMatcher.matches(method) && method.getSelect() != null) {
@@ -16,135 +16,192 @@
 package org.openrewrite.java.internal;
 
 import org.openrewrite.Tree;
+import org.openrewrite.internal.PrintOutput;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.java.AbstractJavaSourceVisitor;
-import org.openrewrite.java.JavaSourceVisitor;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.Statement;
 
 import java.util.Collection;
 
-import static java.util.stream.StreamSupport.stream;
 import static org.openrewrite.java.tree.J.Modifier.*;
 
-public class PrintJava extends AbstractJavaSourceVisitor<String> {
+/**
+ * Writes each tree to the output as it is visited, so printing is linear in the size of the source
+ * and doesn't build up intermediate strings for the trees along the way.
+ */
+public class PrintJava extends AbstractJavaSourceVisitor<PrintOutput> {
+    private final PrintOutput out;
+
+    public PrintJava(PrintOutput out) {
+        this.out = out;
+        setBudgetingOff();
+    }
+
     @Override
-    public String defaultTo(Tree t) {
-        return "";
+    public PrintOutput defaultTo(Tree t) {
+        return out;
     }
 
     @Override
-    public String reduce(String r1, String r2) {
-        return r1 + r2;
+    public PrintOutput reduce(PrintOutput r1, PrintOutput r2) {
+        return out;
     }
 
-    private String visit(Collection<? extends Tree> nodes, String suffixBetween) {
-        return visit(nodes, suffixBetween, "");
+    @Override
+    public PrintOutput visit(@Nullable Tree tree) {
+        return out.print(tree, super::visit);
     }
 
-    private String visit(Collection<? extends Tree> nodes, String suffixBetween, String suffixEnd) {
-        String acc = "";
-        Tree[] array = nodes.toArray(new Tree[0]);
-        for (int i = 0; i < array.length; i++) {
-            Tree node = array[i];
-            acc = reduce(acc, visit(node) + (i == array.length - 1 ? suffixEnd : suffixBetween));
-        }
-        return acc;
+    private void visit(Collection<? extends Tree> nodes, String suffixBetween) {
+        visit(nodes, suffixBetween, "");
     }
 
-    private String visitStatements(Collection<? extends Tree> statements) {
-        return statements.stream()
-                .map(this::fmtStatement)
-                .reduce("", this::reduce);
+    private void visit(Collection<? extends Tree> nodes, String suffixBetween, String suffixEnd) {
+        int last = nodes.size() - 1;
+        int i = 0;
+        for (Tree node : nodes) {
+            visit(node);
+            out.append(i++ == last ? suffixEnd : suffixBetween);
+        }
     }
 
-    private String fmtStatement(Tree statement) {
-        String semicolonOrEmpty = (statement instanceof Statement && ((Statement) statement).isSemicolonTerminated()) ||
-                (statement instanceof MethodDecl && ((MethodDecl) statement).isAbstract()) ? ";" : "";
-        return visit(statement) + semicolonOrEmpty;
+    private void visitStatements(Collection<? extends Tree> statements) {
+        for (Tree statement : statements) {
+            visitStatement(statement);
+        }
     }
 
-    private String fmt(@Nullable Tree tree, @Nullable String code) {
-        return tree == null || code == null ? "" : tree.getPrefix() + code + tree.getSuffix();
+    private void visitStatement(Tree statement) {
+        visit(statement);
+        if ((statement instanceof Statement && ((Statement) statement).isSemicolonTerminated()) ||
+                (statement instanceof MethodDecl && ((MethodDecl) statement).isAbstract())) {
+            out.append(';');
+        }
     }
 
-    private String visitModifiers(Iterable<Modifier> modifiers) {
-        return stream(modifiers.spliterator(), false)
-                .map(mod -> {
-                    String keyword = "";
-                    if (mod instanceof Public) {
-                        keyword = "public";
-                    } else if (mod instanceof Protected) {
-                        keyword = "protected";
-                    } else if (mod instanceof Private) {
-                        keyword = "private";
-                    } else if (mod instanceof Abstract) {
-                        keyword = "abstract";
-                    } else if (mod instanceof Native) {
-                        keyword = "native";
-                    } else if (mod instanceof Static) {
-                        keyword = "static";
-                    } else if (mod instanceof Strictfp) {
-                        keyword = "strictfp";
-                    } else if (mod instanceof Final) {
-                        keyword = "final";
-                    } else if (mod instanceof Transient) {
-                        keyword = "transient";
-                    } else if (mod instanceof Volatile) {
-                        keyword = "volatile";
-                    } else if (mod instanceof Default) {
-                        keyword = "default";
-                    } else if (mod instanceof Modifier.Synchronized) {
-                        keyword = "synchronized";
-                    }
-                    return fmt(mod, keyword);
-                })
-                .reduce("", this::reduce);
+    private PrintOutput fmt(@Nullable Tree tree, @Nullable String code) {
+        return tree == null || code == null ? out : out.append(tree.getPrefix()).append(code).append(tree.getSuffix());
+    }
+
+    private void prefix(Tree tree) {
+        out.append(tree.getPrefix());
+    }
+
+    private PrintOutput suffix(Tree tree) {
+        return out.append(tree.getSuffix());
+    }
+
+    private void visitModifiers(Iterable<Modifier> modifiers) {
+        for (Modifier mod : modifiers) {
+            String keyword = "";
+            if (mod instanceof Public) {
+                keyword = "public";
+            } else if (mod instanceof Protected) {
+                keyword = "protected";
+            } else if (mod instanceof Private) {
+                keyword = "private";
+            } else if (mod instanceof Abstract) {
+                keyword = "abstract";
+            } else if (mod instanceof Native) {
+                keyword = "native";
+            } else if (mod instanceof Static) {
+                keyword = "static";
+            } else if (mod instanceof Strictfp) {
+                keyword = "strictfp";
+            } else if (mod instanceof Final) {
+                keyword = "final";
+            } else if (mod instanceof Transient) {
+                keyword = "transient";
+            } else if (mod instanceof Volatile) {
+                keyword = "volatile";
+            } else if (mod instanceof Default) {
+                keyword = "default";
+            } else if (mod instanceof Modifier.Synchronized) {
+                keyword = "synchronized";
+            }
+            fmt(mod, keyword);
+        }
     }
 
-    private String visitDims(Collection<VariableDecls.Dimension> dims) {
-        return dims.stream().map(d -> fmt(d, "[" + visit(d.getWhitespace()) + "]"))
-                .reduce("", this::reduce);
+    private void visitDims(Collection<VariableDecls.Dimension> dims) {
+        for (VariableDecls.Dimension d : dims) {
+            prefix(d);
+            out.append('[');
+            visit(d.getWhitespace());
+            out.append(']');
+            suffix(d);
+        }
     }
 
     @Override
-    public String visitAnnotatedType(AnnotatedType annotatedType) {
-        return fmt(annotatedType, visit(annotatedType.getAnnotations(), "") + visit(annotatedType.getTypeExpr()));
+    public PrintOutput visitAnnotatedType(AnnotatedType annotatedType) {
+        prefix(annotatedType);
+        visit(annotatedType.getAnnotations(), "");
+        visit(annotatedType.getTypeExpr());
+        return suffix(annotatedType);
     }
 
     @Override
-    public String visitAnnotation(Annotation annotation) {
-        String args = annotation.getArgs() == null ? "" :
-                fmt(annotation.getArgs(), "(" + visit(annotation.getArgs().getArgs(), ",") + ")");
-        return fmt(annotation, "@" + visit(annotation.getAnnotationType()) + args);
+    public PrintOutput visitAnnotation(Annotation annotation) {
+        prefix(annotation);
+        out.append('@');
+        visit(annotation.getAnnotationType());
+        if (annotation.getArgs() != null) {
+            prefix(annotation.getArgs());
+            out.append('(');
+            visit(annotation.getArgs().getArgs(), ",");
+            out.append(')');
+            suffix(annotation.getArgs());
+        }
+        return suffix(annotation);
     }
 
     @Override
-    public String visitArrayAccess(ArrayAccess arrayAccess) {
-        String dimension = fmt(arrayAccess.getDimension(), "[" + visit(arrayAccess.getDimension().getIndex()) + "]");
-        return fmt(arrayAccess, visit(arrayAccess.getIndexed()) + dimension);
+    public PrintOutput visitArrayAccess(ArrayAccess arrayAccess) {
+        prefix(arrayAccess);
+        visit(arrayAccess.getIndexed());
+        prefix(arrayAccess.getDimension());
+        out.append('[');
+        visit(arrayAccess.getDimension().getIndex());
+        out.append(']');
+        suffix(arrayAccess.getDimension());
+        return suffix(arrayAccess);
     }
 
     @Override
-    public String visitArrayType(ArrayType arrayType) {
-        String dimension = arrayType.getDimensions().stream()
-                .map(d -> fmt(d, "[" + visit(d.getInner()) + "]"))
-                .reduce("", this::reduce);
-        return fmt(arrayType, visit(arrayType.getElementType()) + dimension);
+    public PrintOutput visitArrayType(ArrayType arrayType) {
+        prefix(arrayType);
+        visit(arrayType.getElementType());
+        for (ArrayType.Dimension d : arrayType.getDimensions()) {
+            prefix(d);
+            out.append('[');
+            visit(d.getInner());
+            out.append(']');
+            suffix(d);
+        }
+        return suffix(arrayType);
     }
 
     @Override
-    public String visitAssert(Assert azzert) {
-        return fmt(azzert, "assert" + visit(azzert.getCondition()));
+    public PrintOutput visitAssert(Assert azzert) {
+        prefix(azzert);
+        out.append("assert");
+        visit(azzert.getCondition());
+        return suffix(azzert);
     }
 
     @Override
-    public String visitAssign(Assign assign) {
-        return fmt(assign, visit(assign.getVariable()) + "=" + visit(assign.getAssignment()));
+    public PrintOutput visitAssign(Assign assign) {
+        prefix(assign);
+        visit(assign.getVariable());
+        out.append('=');
+        visit(assign.getAssignment());
+        return suffix(assign);
     }
 
     @Override
-    public String visitAssignOp(AssignOp assignOp) {
+    public PrintOutput visitAssignOp(AssignOp assignOp) {
         String keyword = "";
         if (assignOp.getOperator() instanceof AssignOp.Operator.Addition) {
             keyword = "+=";
@@ -170,11 +227,15 @@ public class PrintJava extends AbstractJavaSourceVisitor<String> {
             keyword = ">>>=";
         }
 
-        return fmt(assignOp, visit(assignOp.getVariable()) + fmt(assignOp.getOperator(), keyword) + visit(assignOp.getAssignment()));
+        prefix(assignOp);
+        visit(assignOp.getVariable());
+        fmt(assignOp.getOperator(), keyword);
+        visit(assignOp.getAssignment());
+        return suffix(assignOp);
     }
 
     @Override
-    public String visitBinary(Binary binary) {
+    public PrintOutput visitBinary(Binary binary) {
         String keyword = "";
         if (binary.getOperator() instanceof Binary.Operator.Addition) {
             keyword = "+";
@@ -216,34 +277,51 @@ public class PrintJava extends AbstractJavaSourceVisitor<String> {
             keyword = "&&";
         }
 
-        return fmt(binary, visit(binary.getLeft()) + fmt(binary.getOperator(), keyword) + visit(binary.getRight()));
+        prefix(binary);
+        visit(binary.getLeft());
+        fmt(binary.getOperator(), keyword);
+        visit(binary.getRight());
+        return suffix(binary);
     }
 
     @Override
-    public String visitBlock(Block<J> block) {
-        return fmt(block, fmt(block.getStatic(), "static") + "{" + visitStatements(block.getStatements()) +
-                block.getEnd().getPrefix() + "}");
+    public PrintOutput visitBlock(Block<J> block) {
+        prefix(block);
+        fmt(block.getStatic(), "static");
+        out.append('{');
+        visitStatements(block.getStatements());
+        out.append(block.getEnd().getPrefix()).append('}');
+        return suffix(block);
     }
 
     @Override
-    public String visitBreak(Break breakStatement) {
-        return fmt(breakStatement, "break" + visit(breakStatement.getLabel()));
+    public PrintOutput visitBreak(Break breakStatement) {
+        prefix(breakStatement);
+        out.append("break");
+        visit(breakStatement.getLabel());
+        return suffix(breakStatement);
     }
 
     @Override
-    public String visitCase(Case caze) {
-        return fmt(caze, visit(caze.getPattern()) + ":" + visitStatements(caze.getStatements()));
+    public PrintOutput visitCase(Case caze) {
+        prefix(caze);
+        visit(caze.getPattern());
+        out.append(':');
+        visitStatements(caze.getStatements());
+        return suffix(caze);
     }
 
     @Override
-    public String visitCatch(Try.Catch catzh) {
-        return fmt(catzh, "catch" + visit(catzh.getParam()) + visit(catzh.getBody()));
+    public PrintOutput visitCatch(Try.Catch catzh) {
+        prefix(catzh);
+        out.append("catch");
+        visit(catzh.getParam());
+        visit(catzh.getBody());
+        return suffix(catzh);
     }
 
     @Override
-    public String visitClassDecl(ClassDecl classDecl) {
-        String modifiers = visitModifiers(classDecl.getModifiers());
-
+    public PrintOutput visitClassDecl(ClassDecl classDecl) {
         String kind = "";
         if (classDecl.getKind() instanceof ClassDecl.Kind.Class) {
             kind = "class";
@@ -255,201 +333,358 @@ public class PrintJava extends AbstractJavaSourceVisitor<String> {
             kind = "@interface";
         }
 
-        return fmt(classDecl, visit(classDecl.getAnnotations()) +
-                modifiers + fmt(classDecl.getKind(), kind) +
-                visit(classDecl.getName()) +
-                visit(classDecl.getTypeParameters()) +
-                (classDecl.getExtends() == null ? "" :
-                        fmt(classDecl.getExtends(), "extends" + visit(classDecl.getExtends().getFrom()))) +
-                (classDecl.getImplements() == null ? "" :
-                        fmt(classDecl.getImplements(),
-                                (classDecl.getKind() instanceof ClassDecl.Kind.Interface ? "extends" : "implements") +
-                                        visit(classDecl.getImplements().getFrom(), ","))) +
-                visit(classDecl.getBody()));
+        prefix(classDecl);
+        visit(classDecl.getAnnotations());
+        visitModifiers(classDecl.getModifiers());
+        fmt(classDecl.getKind(), kind);
+        visit(classDecl.getName());
+        visit(classDecl.getTypeParameters());
+        if (classDecl.getExtends() != null) {
+            prefix(classDecl.getExtends());
+            out.append("extends");
+            visit(classDecl.getExtends().getFrom());
+            suffix(classDecl.getExtends());
+        }
+        if (classDecl.getImplements() != null) {
+            prefix(classDecl.getImplements());
+            out.append(classDecl.getKind() instanceof ClassDecl.Kind.Interface ? "extends" : "implements");
+            visit(classDecl.getImplements().getFrom(), ",");
+            suffix(classDecl.getImplements());
+        }
+        visit(classDecl.getBody());
+        return suffix(classDecl);
     }
 
     @Override
-    public String visitCompilationUnit(CompilationUnit cu) {
-        return fmt(cu, (cu.getPackageDecl() == null ? "" : visit(cu.getPackageDecl()) + ";") +
-                visit(cu.getImports(), ";", ";") +
-                visit(cu.getClasses()));
+    public PrintOutput visitCompilationUnit(CompilationUnit cu) {
+        prefix(cu);
+        if (cu.getPackageDecl() != null) {
+            visit(cu.getPackageDecl());
+            out.append(';');
+        }
+        visit(cu.getImports(), ";", ";");
+        visit(cu.getClasses());
+        return suffix(cu);
     }
 
     @Override
-    public String visitContinue(Continue continueStatement) {
-        return fmt(continueStatement, "continue" + visit(continueStatement.getLabel()));
+    public PrintOutput visitContinue(Continue continueStatement) {
+        prefix(continueStatement);
+        out.append("continue");
+        visit(continueStatement.getLabel());
+        return suffix(continueStatement);
     }
 
     @Override
-    public String visitDoWhileLoop(DoWhileLoop doWhileLoop) {
-        return fmt(doWhileLoop, "do" + fmtStatement(doWhileLoop.getBody()) + fmt(doWhileLoop.getWhileCondition(), "while") + visit(doWhileLoop.getWhileCondition().getCondition()));
+    public PrintOutput visitDoWhileLoop(DoWhileLoop doWhileLoop) {
+        prefix(doWhileLoop);
+        out.append("do");
+        visitStatement(doWhileLoop.getBody());
+        fmt(doWhileLoop.getWhileCondition(), "while");
+        visit(doWhileLoop.getWhileCondition().getCondition());
+        return suffix(doWhileLoop);
     }
 
     @Override
-    public String visitEmpty(Empty empty) {
+    public PrintOutput visitEmpty(Empty empty) {
         return fmt(empty, "");
     }
 
     @Override
-    public String visitEnumValue(EnumValue enoom) {
-        String init = "";
+    public PrintOutput visitEnumValue(EnumValue enoom) {
+        prefix(enoom);
+        visit(enoom.getName());
 
         NewClass initializer = enoom.getInitializer();
         if (initializer != null) {
+            prefix(initializer);
             if (initializer.getArgs() != null) {
-                init = fmt(initializer.getArgs(), "(" + visit(initializer.getArgs().getArgs(), ",") + ")");
+                prefix(initializer.getArgs());
+                out.append('(');
+                visit(initializer.getArgs().getArgs(), ",");
+                out.append(')');
+                suffix(initializer.getArgs());
             }
-            init = fmt(initializer, init + visit(initializer.getBody()));
+            visit(initializer.getBody());
+            suffix(initializer);
         }
 
-        return fmt(enoom, visit(enoom.getName()) + init);
+        return suffix(enoom);
     }
 
     @Override
-    public String visitEnumValueSet(EnumValueSet enums) {
-        return fmt(enums, visit(enums.getEnums(), ",") +
-                (enums.isTerminatedWithSemicolon() ? ";" : ""));
+    public PrintOutput visitEnumValueSet(EnumValueSet enums) {
+        prefix(enums);
+        visit(enums.getEnums(), ",");
+        if (enums.isTerminatedWithSemicolon()) {
+            out.append(';');
+        }
+        return suffix(enums);
     }
 
     @Override
-    public String visitFieldAccess(FieldAccess fieldAccess) {
-        return fmt(fieldAccess, visit(fieldAccess.getTarget()) + "." + visit(fieldAccess.getName()));
+    public PrintOutput visitFieldAccess(FieldAccess fieldAccess) {
+        prefix(fieldAccess);
+        visit(fieldAccess.getTarget());
+        out.append('.');
+        visit(fieldAccess.getName());
+        return suffix(fieldAccess);
     }
 
-    public String visitFinally(Try.Finally finallie) {
-        return fmt(finallie, "finally" + visit(finallie.getBody()));
+    public PrintOutput visitFinally(Try.Finally finallie) {
+        prefix(finallie);
+        out.append("finally");
+        visit(finallie.getBody());
+        return suffix(finallie);
     }
 
     @Override
-    public String visitForLoop(ForLoop forLoop) {
+    public PrintOutput visitForLoop(ForLoop forLoop) {
         ForLoop.Control ctrl = forLoop.getControl();
-        String expr = fmt(ctrl, "(" + visit(ctrl.getInit()) + ";" + visit(ctrl.getCondition()) + ";" + visit(ctrl.getUpdate(), ",", "") + ")");
-        return fmt(forLoop, "for" + expr + fmtStatement(forLoop.getBody()));
-    }
-
-    @Override
-    public String visitForEachLoop(ForEachLoop forEachLoop) {
+        prefix(forLoop);
+        out.append("for");
+        prefix(ctrl);
+        out.append('(');
+        visit(ctrl.getInit());
+        out.append(';');
+        visit(ctrl.getCondition());
+        out.append(';');
+        visit(ctrl.getUpdate(), ",", "");
+        out.append(')');
+        suffix(ctrl);
+        visitStatement(forLoop.getBody());
+        return suffix(forLoop);
+    }
+
+    @Override
+    public PrintOutput visitForEachLoop(ForEachLoop forEachLoop) {
         ForEachLoop.Control ctrl = forEachLoop.getControl();
-        String expr = fmt(ctrl, "(" + visit(ctrl.getVariable()) + ":" + visit(ctrl.getIterable()) + ")");
-        return fmt(forEachLoop, "for" + expr + fmtStatement(forEachLoop.getBody()));
+        prefix(forEachLoop);
+        out.append("for");
+        prefix(ctrl);
+        out.append('(');
+        visit(ctrl.getVariable());
+        out.append(':');
+        visit(ctrl.getIterable());
+        out.append(')');
+        suffix(ctrl);
+        visitStatement(forEachLoop.getBody());
+        return suffix(forEachLoop);
     }
 
     @Override
-    public String visitIdentifier(Ident ident) {
+    public PrintOutput visitIdentifier(Ident ident) {
         return fmt(ident, ident.getSimpleName());
     }
 
     @Override
-    public String visitIf(If iff) {
-        String elsePart = iff.getElsePart() == null ? "" :
-                fmt(iff.getElsePart(), "else" + fmtStatement(iff.getElsePart().getStatement()));
-        return fmt(iff, "if" + visit(iff.getIfCondition()) + fmtStatement(iff.getThenPart()) + elsePart);
+    public PrintOutput visitIf(If iff) {
+        prefix(iff);
+        out.append("if");
+        visit(iff.getIfCondition());
+        visitStatement(iff.getThenPart());
+        if (iff.getElsePart() != null) {
+            prefix(iff.getElsePart());
+            out.append("else");
+            visitStatement(iff.getElsePart().getStatement());
+            suffix(iff.getElsePart());
+        }
+        return suffix(iff);
     }
 
     @Override
-    public String visitImport(Import impoort) {
-        return fmt(impoort, "import" + (impoort.isStatic() ? " static" : "") + visit(impoort.getQualid()));
+    public PrintOutput visitImport(Import impoort) {
+        prefix(impoort);
+        out.append(impoort.isStatic() ? "import static" : "import");
+        visit(impoort.getQualid());
+        return suffix(impoort);
     }
 
     @Override
-    public String visitInstanceOf(InstanceOf instanceOf) {
-        return fmt(instanceOf, visit(instanceOf.getExpr()) + "instanceof" + visit(instanceOf.getClazz()));
+    public PrintOutput visitInstanceOf(InstanceOf instanceOf) {
+        prefix(instanceOf);
+        visit(instanceOf.getExpr());
+        out.append("instanceof");
+        visit(instanceOf.getClazz());
+        return suffix(instanceOf);
     }
 
     @Override
-    public String visitLabel(Label label) {
-        return fmt(label, visit(label.getLabel()) + ":" + visit(label.getStatement()));
+    public PrintOutput visitLabel(Label label) {
+        prefix(label);
+        visit(label.getLabel());
+        out.append(':');
+        visit(label.getStatement());
+        return suffix(label);
     }
 
     @Override
-    public String visitLambda(Lambda lambda) {
-        String params = visit(lambda.getParamSet().getParams(), ",");
-        String paramSet = fmt(lambda.getParamSet(), lambda.getParamSet().isParenthesized() ? "(" + params + ")" : params);
-        return fmt(lambda, paramSet + fmt(lambda.getArrow(), "->") + visit(lambda.getBody()));
+    public PrintOutput visitLambda(Lambda lambda) {
+        Lambda.Parameters paramSet = lambda.getParamSet();
+        prefix(lambda);
+        prefix(paramSet);
+        if (paramSet.isParenthesized()) {
+            out.append('(');
+        }
+        visit(paramSet.getParams(), ",");
+        if (paramSet.isParenthesized()) {
+            out.append(')');
+        }
+        suffix(paramSet);
+        fmt(lambda.getArrow(), "->");
+        visit(lambda.getBody());
+        return suffix(lambda);
     }
 
     @Override
-    public String visitLiteral(Literal literal) {
+    public PrintOutput visitLiteral(Literal literal) {
         return fmt(literal, literal.getValueSource());
     }
 
     @Override
-    public String visitMemberReference(MemberReference memberRef) {
-        return fmt(memberRef, visit(memberRef.getContaining()) + "::" +
-                visit(memberRef.getTypeParameters()) + visit(memberRef.getReference()));
+    public PrintOutput visitMemberReference(MemberReference memberRef) {
+        prefix(memberRef);
+        visit(memberRef.getContaining());
+        out.append("::");
+        visit(memberRef.getTypeParameters());
+        visit(memberRef.getReference());
+        return suffix(memberRef);
     }
 
     @Override
-    public String visitMethod(MethodDecl method) {
-        String modifiers = visitModifiers(method.getModifiers());
-        String params = fmt(method.getParams(), "(" + visit(method.getParams().getParams(), ",")) + ")";
-        String defaultValue = method.getDefaultValue() == null ? "" :
-                fmt(method.getDefaultValue(), "default" + visit(method.getDefaultValue().getValue()));
-        String thrown = method.getThrows() == null ? "" :
-                fmt(method.getThrows(), "throws" + visit(method.getThrows().getExceptions(), ","));
+    public PrintOutput visitMethod(MethodDecl method) {
+        prefix(method);
+        visit(method.getAnnotations());
+        visitModifiers(method.getModifiers());
+        visit(method.getTypeParameters());
+        visit(method.getReturnTypeExpr());
+        visit(method.getName());
+
+        prefix(method.getParams());
+        out.append('(');
+        visit(method.getParams().getParams(), ",");
+        suffix(method.getParams());
+        out.append(')');
+
+        if (method.getThrows() != null) {
+            prefix(method.getThrows());
+            out.append("throws");
+            visit(method.getThrows().getExceptions(), ",");
+            suffix(method.getThrows());
+        }
 
-        return fmt(method, visit(method.getAnnotations()) + modifiers + visit(method.getTypeParameters()) +
-                visit(method.getReturnTypeExpr()) + visit(method.getName()) + params +
-                thrown + visit(method.getBody()) + defaultValue);
+        visit(method.getBody());
+
+        if (method.getDefaultValue() != null) {
+            prefix(method.getDefaultValue());
+            out.append("default");
+            visit(method.getDefaultValue().getValue());
+            suffix(method.getDefaultValue());
+        }
+
+        return suffix(method);
     }
 
     @Override
-    public String visitMethodInvocation(MethodInvocation method) {
-        String args = fmt(method.getArgs(), "(" + visit(method.getArgs().getArgs(), ",") + ")");
-        String typeParams = method.getTypeParameters() == null ? "" :
-                fmt(method.getTypeParameters(), "<" + visit(method.getTypeParameters().getParams(), ",") + ">");
-        String selectSeparator = method.getSelect() == null ? "" : ".";
-        return fmt(method, visit(method.getSelect()) + selectSeparator + typeParams + visit(method.getName()) + args);
+    public PrintOutput visitMethodInvocation(MethodInvocation method) {
+        prefix(method);
+        visit(method.getSelect());
+        if (method.getSelect() != null) {
+            out.append('.');
+        }
+        if (method.getTypeParameters() != null) {
+            prefix(method.getTypeParameters());
+            out.append('<');
+            visit(method.getTypeParameters().getParams(), ",");
+            out.append('>');
+            suffix(method.getTypeParameters());
+        }
+        visit(method.getName());
+        prefix(method.getArgs());
+        out.append('(');
+        visit(method.getArgs().getArgs(), ",");
+        out.append(')');
+        suffix(method.getArgs());
+        return suffix(method);
     }
 
     @Override
-    public String visitMultiCatch(MultiCatch multiCatch) {
-        return fmt(multiCatch, visit(multiCatch.getAlternatives(), "|"));
+    public PrintOutput visitMultiCatch(MultiCatch multiCatch) {
+        prefix(multiCatch);
+        visit(multiCatch.getAlternatives(), "|");
+        return suffix(multiCatch);
     }
 
     @Override
-    public String visitMultiVariable(VariableDecls multiVariable) {
-        String modifiers = visitModifiers(multiVariable.getModifiers());
-        String varargs = multiVariable.getVarargs() == null ? "" :
-                fmt(multiVariable.getVarargs(), "...");
-
-        return fmt(multiVariable, visit(multiVariable.getAnnotations()) + modifiers +
-                visit(multiVariable.getTypeExpr()) + visitDims(multiVariable.getDimensionsBeforeName()) +
-                varargs + visit(multiVariable.getVars(), ","));
+    public PrintOutput visitMultiVariable(VariableDecls multiVariable) {
+        prefix(multiVariable);
+        visit(multiVariable.getAnnotations());
+        visitModifiers(multiVariable.getModifiers());
+        visit(multiVariable.getTypeExpr());
+        visitDims(multiVariable.getDimensionsBeforeName());
+        fmt(multiVariable.getVarargs(), "...");
+        visit(multiVariable.getVars(), ",");
+        return suffix(multiVariable);
     }
 
     @Override
-    public String visitNewArray(NewArray newArray) {
-        String typeExpr = newArray.getTypeExpr() == null ? "" :
-                "new" + visit(newArray.getTypeExpr());
-        String dimensions = newArray.getDimensions().stream()
-                .map(d -> fmt(d, "[" + visit(d.getSize()) + "]"))
-                .reduce("", this::reduce);
-        String init = newArray.getInitializer() == null ? "" :
-                fmt(newArray.getInitializer(), "{" + visit(newArray.getInitializer().getElements(), ",") + "}");
-
-        return fmt(newArray, typeExpr + dimensions + init);
+    public PrintOutput visitNewArray(NewArray newArray) {
+        prefix(newArray);
+        if (newArray.getTypeExpr() != null) {
+            out.append("new");
+            visit(newArray.getTypeExpr());
+        }
+        for (NewArray.Dimension d : newArray.getDimensions()) {
+            prefix(d);
+            out.append('[');
+            visit(d.getSize());
+            out.append(']');
+            suffix(d);
+        }
+        if (newArray.getInitializer() != null) {
+            prefix(newArray.getInitializer());
+            out.append('{');
+            visit(newArray.getInitializer().getElements(), ",");
+            out.append('}');
+            suffix(newArray.getInitializer());
+        }
+        return suffix(newArray);
     }
 
     @Override
-    public String visitNewClass(NewClass newClass) {
-        String args = newClass.getArgs() == null ? "" :
-                fmt(newClass.getArgs(), "(" + visit(newClass.getArgs().getArgs(), ",") + ")");
-        return fmt(newClass, "new" + visit(newClass.getClazz()) + args + visit(newClass.getBody()));
+    public PrintOutput visitNewClass(NewClass newClass) {
+        prefix(newClass);
+        out.append("new");
+        visit(newClass.getClazz());
+        if (newClass.getArgs() != null) {
+            prefix(newClass.getArgs());
+            out.append('(');
+            visit(newClass.getArgs().getArgs(), ",");
+            out.append(')');
+            suffix(newClass.getArgs());
+        }
+        visit(newClass.getBody());
+        return suffix(newClass);
     }
 
     @Override
-    public String visitPackage(J.Package pkg) {
-        return fmt(pkg, "package" + visit(pkg.getExpr()));
+    public PrintOutput visitPackage(J.Package pkg) {
+        prefix(pkg);
+        out.append("package");
+        visit(pkg.getExpr());
+        return suffix(pkg);
     }
 
     @Override
-    public String visitParameterizedType(ParameterizedType type) {
-        return fmt(type, visit(type.getClazz()) + visit(type.getTypeParameters()));
+    public PrintOutput visitParameterizedType(ParameterizedType type) {
+        prefix(type);
+        visit(type.getClazz());
+        visit(type.getTypeParameters());
+        return suffix(type);
     }
 
     @Override
-    public String visitPrimitive(Primitive primitive) {
+    public PrintOutput visitPrimitive(Primitive primitive) {
         String keyword;
         switch (primitive.getType()) {
             case Boolean:
@@ -497,110 +732,174 @@ public class PrintJava extends AbstractJavaSourceVisitor<String> {
     }
 
     @Override
-    public <T extends J> String visitParentheses(Parentheses<T> parens) {
-        return fmt(parens, "(" + visit(parens.getTree()) + ")");
+    public <T extends J> PrintOutput visitParentheses(Parentheses<T> parens) {
+        prefix(parens);
+        out.append('(');
+        visit(parens.getTree());
+        out.append(')');
+        return suffix(parens);
     }
 
     @Override
-    public String visitReturn(Return retrn) {
-        return fmt(retrn, "return" + visit(retrn.getExpr()));
+    public PrintOutput visitReturn(Return retrn) {
+        prefix(retrn);
+        out.append("return");
+        visit(retrn.getExpr());
+        return suffix(retrn);
     }
 
     @Override
-    public String visitSwitch(Switch switzh) {
-        return fmt(switzh, "switch" + visit(switzh.getSelector()) + visit(switzh.getCases()));
+    public PrintOutput visitSwitch(Switch switzh) {
+        prefix(switzh);
+        out.append("switch");
+        visit(switzh.getSelector());
+        visit(switzh.getCases());
+        return suffix(switzh);
     }
 
     @Override
-    public String visitSynchronized(J.Synchronized synch) {
-        return fmt(synch, "synchronized" + visit(synch.getLock()) + visit(synch.getBody()));
+    public PrintOutput visitSynchronized(J.Synchronized synch) {
+        prefix(synch);
+        out.append("synchronized");
+        visit(synch.getLock());
+        visit(synch.getBody());
+        return suffix(synch);
     }
 
     @Override
-    public String visitTernary(Ternary ternary) {
-        return fmt(ternary, visit(ternary.getCondition()) + "?" + visit(ternary.getTruePart()) + ":" +
-                visit(ternary.getFalsePart()));
+    public PrintOutput visitTernary(Ternary ternary) {
+        prefix(ternary);
+        visit(ternary.getCondition());
+        out.append('?');
+        visit(ternary.getTruePart());
+        out.append(':');
+        visit(ternary.getFalsePart());
+        return suffix(ternary);
     }
 
     @Override
-    public String visitThrow(Throw thrown) {
-        return fmt(thrown, "throw" + visit(thrown.getException()));
+    public PrintOutput visitThrow(Throw thrown) {
+        prefix(thrown);
+        out.append("throw");
+        visit(thrown.getException());
+        return suffix(thrown);
     }
 
     @Override
-    public String visitTry(Try tryable) {
-        String resources = tryable.getResources() == null ? "" :
-                fmt(tryable.getResources(), "(" + visit(tryable.getResources().getDecls(), ";") + ")");
-
-        return fmt(tryable, "try" + resources + visit(tryable.getBody()) + visit(tryable.getCatches()) + visit(tryable.getFinally()));
+    public PrintOutput visitTry(Try tryable) {
+        prefix(tryable);
+        out.append("try");
+        if (tryable.getResources() != null) {
+            prefix(tryable.getResources());
+            out.append('(');
+            visit(tryable.getResources().getDecls(), ";");
+            out.append(')');
+            suffix(tryable.getResources());
+        }
+        visit(tryable.getBody());
+        visit(tryable.getCatches());
+        visit(tryable.getFinally());
+        return suffix(tryable);
     }
 
     @Override
-    public String visitTypeCast(TypeCast typeCast) {
-        return fmt(typeCast, visit(typeCast.getClazz()) + visit(typeCast.getExpr()));
+    public PrintOutput visitTypeCast(TypeCast typeCast) {
+        prefix(typeCast);
+        visit(typeCast.getClazz());
+        visit(typeCast.getExpr());
+        return suffix(typeCast);
     }
 
     @Override
-    public String visitTypeParameters(TypeParameters typeParams) {
-        return fmt(typeParams, "<" + visit(typeParams.getParams(), ",", "") + ">");
+    public PrintOutput visitTypeParameters(TypeParameters typeParams) {
+        prefix(typeParams);
+        out.append('<');
+        visit(typeParams.getParams(), ",", "");
+        out.append('>');
+        return suffix(typeParams);
     }
 
     @Override
-    public String visitTypeParameter(TypeParameter typeParam) {
-        String bounds = typeParam.getBounds() == null ? "" :
-                fmt(typeParam.getBounds(), "extends" + visit(typeParam.getBounds().getTypes(), "&"));
-        return fmt(typeParam, visit(typeParam.getAnnotations(), "") + visit(typeParam.getName()) + bounds);
+    public PrintOutput visitTypeParameter(TypeParameter typeParam) {
+        prefix(typeParam);
+        visit(typeParam.getAnnotations(), "");
+        visit(typeParam.getName());
+        if (typeParam.getBounds() != null) {
+            prefix(typeParam.getBounds());
+            out.append("extends");
+            visit(typeParam.getBounds().getTypes(), "&");
+            suffix(typeParam.getBounds());
+        }
+        return suffix(typeParam);
     }
 
     @Override
-    public String visitUnary(Unary unary) {
-        String code = "";
+    public PrintOutput visitUnary(Unary unary) {
+        prefix(unary);
         if (unary.getOperator() instanceof J.Unary.Operator.PreIncrement) {
-            code = "++" + visit(unary.getExpr());
+            out.append("++");
+            visit(unary.getExpr());
         } else if (unary.getOperator() instanceof J.Unary.Operator.PreDecrement) {
-            code = "--" + visit(unary.getExpr());
+            out.append("--");
+            visit(unary.getExpr());
         } else if (unary.getOperator() instanceof J.Unary.Operator.PostIncrement) {
-            code = visit(unary.getExpr()) + fmt(unary.getOperator(), "++");
+            visit(unary.getExpr());
+            fmt(unary.getOperator(), "++");
         } else if (unary.getOperator() instanceof J.Unary.Operator.PostDecrement) {
-            code = visit(unary.getExpr()) + fmt(unary.getOperator(), "--");
+            visit(unary.getExpr());
+            fmt(unary.getOperator(), "--");
         } else if (unary.getOperator() instanceof J.Unary.Operator.Positive) {
-            code = "+" + visit(unary.getExpr());
+            out.append('+');
+            visit(unary.getExpr());
         } else if (unary.getOperator() instanceof J.Unary.Operator.Negative) {
-            code = "-" + visit(unary.getExpr());
+            out.append('-');
+            visit(unary.getExpr());
         } else if (unary.getOperator() instanceof J.Unary.Operator.Complement) {
-            code = "~" + visit(unary.getExpr());
+            out.append('~');
+            visit(unary.getExpr());
         } else if (unary.getOperator() instanceof J.Unary.Operator.Not) {
-            code = "!" + visit(unary.getExpr());
+            out.append('!');
+            visit(unary.getExpr());
         }
-
-        return fmt(unary, code);
+        return suffix(unary);
     }
 
     @Override
-    public String visitUnparsedSource(UnparsedSource unparsed) {
+    public PrintOutput visitUnparsedSource(UnparsedSource unparsed) {
         return fmt(unparsed, unparsed.getSource());
     }
 
     @Override
-    public String visitVariable(VariableDecls.NamedVar variable) {
-        String init = variable.getInitializer() == null ? "" :
-                "=" + visit(variable.getInitializer());
-        return fmt(variable, visit(variable.getName()) + visitDims(variable.getDimensionsAfterName()) + init);
+    public PrintOutput visitVariable(VariableDecls.NamedVar variable) {
+        prefix(variable);
+        visit(variable.getName());
+        visitDims(variable.getDimensionsAfterName());
+        if (variable.getInitializer() != null) {
+            out.append('=');
+            visit(variable.getInitializer());
+        }
+        return suffix(variable);
     }
 
     @Override
-    public String visitWhileLoop(WhileLoop whileLoop) {
-        return fmt(whileLoop, "while" + visit(whileLoop.getCondition()) + fmtStatement(whileLoop.getBody()));
+    public PrintOutput visitWhileLoop(WhileLoop whileLoop) {
+        prefix(whileLoop);
+        out.append("while");
+        visit(whileLoop.getCondition());
+        visitStatement(whileLoop.getBody());
+        return suffix(whileLoop);
     }
 
     @Override
-    public String visitWildcard(Wildcard wildcard) {
-        String bound = "";
+    public PrintOutput visitWildcard(Wildcard wildcard) {
+        prefix(wildcard);
+        out.append('?');
         if (wildcard.getBound() instanceof Wildcard.Bound.Extends) {
-            bound = fmt(wildcard.getBound(), "extends");
+            fmt(wildcard.getBound(), "extends");
         } else if (wildcard.getBound() instanceof Wildcard.Bound.Super) {
-            bound = fmt(wildcard.getBound(), "super");
+            fmt(wildcard.getBound(), "super");
         }
-        return fmt(wildcard, "?" + bound + visit(wildcard.getBoundedType()));
+        visit(wildcard.getBoundedType());
+        return suffix(wildcard);
     }
 }
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.internal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.tree.JavaType;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A concurrent table of canonical types, where several structurally different variants of a type may share
+ * the same key (e.g. two versions of a class with the same fully qualified name). Lookups of a variant that is
+ * already in the table take no locks. Variants are held weakly, so a type leaves the table once no tree
+ * refers to it any longer.
+ *
+ * @param <K> The key shared by variants of the same type.
+ * @param <T> The type.
+ */
+public class TypeFlyweights<K, T extends JavaType> {
+    private final ConcurrentMap<K, List<Variant<K, T>>> variantsByKey = new ConcurrentHashMap<>();
+    private final ReferenceQueue<T> collected = new ReferenceQueue<>();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public TypeFlyweights(String name) {
+        this.hits = Counter.builder("rewrite.intern")
+                .description("Lookups of canonical instances")
+                .tag("name", name)
+                .tag("outcome", "hit")
+                .register(Metrics.globalRegistry);
+        this.misses = Counter.builder("rewrite.intern")
+                .description("Lookups of canonical instances")
+                .tag("name", name)
+                .tag("outcome", "miss")
+                .register(Metrics.globalRegistry);
+        Gauge.builder("rewrite.intern.size", variantsByKey, ConcurrentMap::size)
+                .description("The number of canonical instances in use")
+                .tag("name", name)
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * @param key     The key shared by variants of the type.
+     * @param type    The type to find a canonical variant of.
+     * @param relaxed When {@code true}, any variant of the type will do.
+     * @return A variant equal to the type, which is the type itself if there wasn't one yet.
+     */
+    public T intern(K key, T type, boolean relaxed) {
+        T found = find(variantsByKey.get(key), type, relaxed);
+        if (found != null) {
+            hits.increment();
+            return found;
+        }
+
+        misses.increment();
+        expungeCollected();
+
+        List<T> interned = new ArrayList<>(1);
+        variantsByKey.compute(key, (k, variants) -> {
+            T variant = find(variants, type, relaxed);
+            if (variant != null) {
+                interned.add(variant);
+                return variants;
+            }
+
+            interned.add(type);
+
+            // variants are copied on write, so that they can be read without a lock
+            List<Variant<K, T>> added = new ArrayList<>(variants == null ? 1 : variants.size() + 1);
+            if (variants != null) {
+                for (Variant<K, T> v : variants) {
+                    if (v.get() != null) {
+                        added.add(v);
+                    }
+                }
+            }
+            added.add(new Variant<>(k, type, collected));
+            return added;
+        });
+
+        return interned.get(0);
+    }
+
+    public void clear() {
+        variantsByKey.clear();
+    }
+
+    @Nullable
+    private T find(@Nullable List<Variant<K, T>> variants, T type, boolean relaxed) {
+        if (variants != null) {
+            for (Variant<K, T> v : variants) {
+                T variant = v.get();
+                if (variant != null && (relaxed || variant.deepEquals(type))) {
+                    return variant;
+                }
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void expungeCollected() {
+        Variant<K, T> v;
+        while ((v = (Variant<K, T>) collected.poll()) != null) {
+            variantsByKey.computeIfPresent(v.key, (k, variants) -> {
+                List<Variant<K, T>> live = new ArrayList<>(variants.size());
+                for (Variant<K, T> variant : variants) {
+                    if (variant.get() != null) {
+                        live.add(variant);
+                    }
+                }
+                return live.isEmpty() ? null : live;
+            });
+        }
+    }
+
+    private static class Variant<K, T> extends WeakReference<T> {
+        private final K key;
+
+        private Variant(K key, T type, ReferenceQueue<T> queue) {
+            super(type, queue);
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.internal;
+
+import org.openrewrite.Tree;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.AbstractJavaSourceVisitor;
+import org.openrewrite.java.tree.Expression;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.NameTree;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static java.util.Collections.unmodifiableSet;
+
+/**
+ * Summarizes the fully qualified names of every type that is referenced by a compilation unit,
+ * along with their supertypes, interfaces, and type parameters, and the types in the signatures of
+ * methods that are invoked. A name written out in full without type attribution, e.g. because the
+ * type isn't on the classpath, is included as it is written, since visitors also match such names by
+ * their text. This is a superset of the types that a type-driven visitor could match on, so a visitor
+ * can rule out a whole compilation unit without visiting it.
+ */
+public class TypesInUse extends AbstractJavaSourceVisitor<Void> {
+    private final Set<String> types = new HashSet<>();
+
+    private TypesInUse() {
+    }
+
+    public static Set<String> build(J.CompilationUnit cu) {
+        TypesInUse typesInUse = new TypesInUse();
+        typesInUse.visit(cu);
+        return unmodifiableSet(typesInUse.types);
+    }
+
+    @Override
+    public Void defaultTo(Tree t) {
+        return null;
+    }
+
+    @Override
+    public Void visitExpression(Expression expr) {
+        add(expr.getType());
+        return super.visitExpression(expr);
+    }
+
+    @Override
+    public Void visitTypeName(NameTree name) {
+        add(name.getType());
+        return super.visitTypeName(name);
+    }
+
+    @Override
+    public Void visitClassDecl(J.ClassDecl classDecl) {
+        add(classDecl.getType());
+        return super.visitClassDecl(classDecl);
+    }
+
+    @Override
+    public Void visitFieldAccess(J.FieldAccess fieldAccess) {
+        if (fieldAccess.getType() == null) {
+            String name = name(fieldAccess);
+            if (name != null) {
+                types.add(name);
+            }
+        }
+        return super.visitFieldAccess(fieldAccess);
+    }
+
+    @Override
+    public Void visitMethodInvocation(J.MethodInvocation method) {
+        add(method.getType());
+        return super.visitMethodInvocation(method);
+    }
+
+    @Override
+    public Void visitVariable(J.VariableDecls.NamedVar variable) {
+        add(variable.getType());
+        return super.visitVariable(variable);
+    }
+
+    @Override
+    public Void visitImport(J.Import impoort) {
+        types.add(impoort.getTypeName());
+        return super.visitImport(impoort);
+    }
+
+    private void add(@Nullable JavaType type) {
+        if (type instanceof JavaType.Class) {
+            JavaType.Class clazz = (JavaType.Class) type;
+            if (types.add(clazz.getFullyQualifiedName())) {
+                add(clazz.getSupertype());
+                clazz.getInterfaces().forEach(this::add);
+                clazz.getTypeParameters().forEach(this::add);
+            }
+        } else if (type instanceof JavaType.GenericTypeVariable) {
+            types.add(((JavaType.GenericTypeVariable) type).getFullyQualifiedName());
+            add(((JavaType.GenericTypeVariable) type).getBound());
+        } else if (type instanceof JavaType.FullyQualified) {
+            types.add(((JavaType.FullyQualified) type).getFullyQualifiedName());
+        } else if (type instanceof JavaType.Method) {
+            JavaType.Method method = (JavaType.Method) type;
+            add(method.getDeclaringType());
+            add(method.getResolvedSignature());
+            add(method.getGenericSignature());
+        } else if (type instanceof JavaType.Var) {
+            add(((JavaType.Var) type).getType());
+        } else if (type instanceof JavaType.Array) {
+            add(((JavaType.Array) type).getElemType());
+        } else if (type instanceof JavaType.MultiCatch) {
+            ((JavaType.MultiCatch) type).getThrowableTypes().forEach(this::add);
+        }
+    }
+
+    @Nullable
+    private static String name(Expression expr) {
+        if (expr instanceof J.Ident) {
+            return ((J.Ident) expr).getSimpleName();
+        } else if (expr instanceof J.FieldAccess) {
+            String target = name(((J.FieldAccess) expr).getTarget());
+            return target == null ? null : target + "." + ((J.FieldAccess) expr).getSimpleName();
+        }
+        return null;
+    }
+
+    private void add(@Nullable JavaType.Method.Signature signature) {
+        if (signature != null) {
+            add(signature.getReturnType());
+            signature.getParamTypes().forEach(this::add);
+        }
+    }
+}
@@ -18,21 +18,19 @@ package org.openrewrite.java.search;
 import lombok.Data;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
-import org.openrewrite.Tree;
-import org.openrewrite.java.AbstractJavaSourceVisitor;
+import org.openrewrite.java.AbstractJavaSourceCollector;
 import org.openrewrite.java.internal.grammar.AnnotationSignatureParser;
 import org.openrewrite.java.internal.grammar.AspectJLexer;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.JavaType;
 import org.openrewrite.java.tree.TypeUtils;
 
+import java.util.ArrayList;
 import java.util.List;
 
-import static java.util.Collections.emptyList;
-import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
 
-public class FindAnnotations extends AbstractJavaSourceVisitor<List<J.Annotation>> {
+public class FindAnnotations extends AbstractJavaSourceCollector<J.Annotation, List<J.Annotation>> {
     private final AnnotationMatcher matcher;
 
     public FindAnnotations(String signature) {
@@ -40,13 +38,13 @@ public class FindAnnotations extends AbstractJavaSourceVisitor<List<J.Annotation
     }
 
     @Override
-    public List<J.Annotation> defaultTo(Tree t) {
-        return emptyList();
+    protected List<J.Annotation> newCollection() {
+        return new ArrayList<>();
     }
 
     @Override
     public List<J.Annotation> visitAnnotation(J.Annotation annotation) {
-        return matcher.matches(annotation) ? singletonList(annotation) : emptyList();
+        return matcher.matches(annotation) ? collect(annotation) : defaultTo(annotation);
     }
 
     private static class AnnotationMatcher {
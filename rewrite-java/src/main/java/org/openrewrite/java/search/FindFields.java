@@ -17,17 +17,14 @@ package org.openrewrite.java.search;
 
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Tags;
-import org.openrewrite.Tree;
-import org.openrewrite.java.AbstractJavaSourceVisitor;
+import org.openrewrite.java.AbstractJavaSourceCollector;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.TypeUtils;
 
+import java.util.ArrayList;
 import java.util.List;
 
-import static java.util.Collections.emptyList;
-import static java.util.Collections.singletonList;
-
-public class FindFields extends AbstractJavaSourceVisitor<List<J.VariableDecls>> {
+public class FindFields extends AbstractJavaSourceCollector<J.VariableDecls, List<J.VariableDecls>> {
     private final String fullyQualifiedName;
 
     public FindFields(String fullyQualifiedName) {
@@ -40,18 +37,18 @@ public class FindFields extends AbstractJavaSourceVisitor<List<J.VariableDecls>>
     }
 
     @Override
-    public List<J.VariableDecls> defaultTo(Tree t) {
-        return emptyList();
+    protected List<J.VariableDecls> newCollection() {
+        return new ArrayList<>();
     }
 
     @Override
     public List<J.VariableDecls> visitMultiVariable(J.VariableDecls multiVariable) {
         if(multiVariable.getTypeExpr() instanceof J.MultiCatch) {
-            return emptyList();
+            return defaultTo(multiVariable);
         }
         if(multiVariable.getTypeExpr() != null && TypeUtils.hasElementType(multiVariable.getTypeExpr().getType(), fullyQualifiedName)) {
-            return singletonList(multiVariable);
+            return collect(multiVariable);
         }
-        return emptyList();
+        return defaultTo(multiVariable);
     }
 }
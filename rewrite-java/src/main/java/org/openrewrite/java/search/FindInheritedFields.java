@@ -17,9 +17,8 @@ package org.openrewrite.java.search;
 
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Tags;
-import org.openrewrite.Tree;
 import org.openrewrite.internal.lang.Nullable;
-import org.openrewrite.java.AbstractJavaSourceVisitor;
+import org.openrewrite.java.AbstractJavaSourceCollector;
 import org.openrewrite.java.tree.Flag;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.JavaType;
@@ -28,9 +27,7 @@ import org.openrewrite.java.tree.TypeUtils;
 import java.util.ArrayList;
 import java.util.List;
 
-import static java.util.Collections.emptyList;
-
-public class FindInheritedFields extends AbstractJavaSourceVisitor<List<JavaType.Var>> {
+public class FindInheritedFields extends AbstractJavaSourceCollector<JavaType.Var, List<JavaType.Var>> {
     private final String fullyQualifiedClassName;
 
     public FindInheritedFields(String fullyQualifiedClassName) {
@@ -43,25 +40,24 @@ public class FindInheritedFields extends AbstractJavaSourceVisitor<List<JavaType
     }
 
     @Override
-    public List<JavaType.Var> defaultTo(Tree t) {
-        return emptyList();
+    protected List<JavaType.Var> newCollection() {
+        return new ArrayList<>();
     }
 
-    private List<JavaType.Var> superFields(@Nullable JavaType.Class type) {
-        if(type == null || type.getSupertype() == null) {
-            return emptyList();
+    private void superFields(@Nullable JavaType.Class type) {
+        for (; type != null && type.getSupertype() != null; type = type.getSupertype()) {
+            for (JavaType.Var member : type.getMembers()) {
+                if (!member.hasFlags(Flag.Private) && TypeUtils.hasElementType(member.getType(), fullyQualifiedClassName)) {
+                    collect(member);
+                }
+            }
         }
-        List<JavaType.Var> types = new ArrayList<>();
-        type.getMembers().stream()
-                .filter(m -> !m.hasFlags(Flag.Private) && TypeUtils.hasElementType(m.getType(), fullyQualifiedClassName))
-                .forEach(types::add);
-        types.addAll(superFields(type.getSupertype()));
-        return types;
     }
 
     @Override
     public List<JavaType.Var> visitClassDecl(J.ClassDecl classDecl) {
         JavaType.Class asClass = TypeUtils.asClass(classDecl.getType());
-        return superFields(asClass == null ? null : asClass.getSupertype());
+        superFields(asClass == null ? null : asClass.getSupertype());
+        return defaultTo(classDecl);
     }
 }
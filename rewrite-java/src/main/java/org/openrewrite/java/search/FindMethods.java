@@ -15,17 +15,14 @@
  */
 package org.openrewrite.java.search;
 
-import org.openrewrite.Tree;
-import org.openrewrite.java.AbstractJavaSourceVisitor;
+import org.openrewrite.java.AbstractJavaSourceCollector;
 import org.openrewrite.java.MethodMatcher;
 import org.openrewrite.java.tree.J;
 
+import java.util.ArrayList;
 import java.util.List;
 
-import static java.util.Collections.emptyList;
-import static java.util.Collections.singletonList;
-
-public class FindMethods extends AbstractJavaSourceVisitor<List<J.MethodInvocation>> {
+public class FindMethods extends AbstractJavaSourceCollector<J.MethodInvocation, List<J.MethodInvocation>> {
     private final MethodMatcher matcher;
 
     public FindMethods(String signature) {
@@ -33,12 +30,12 @@ public class FindMethods extends AbstractJavaSourceVisitor<List<J.MethodInvocati
     }
 
     @Override
-    public List<J.MethodInvocation> defaultTo(Tree t) {
-        return emptyList();
+    protected List<J.MethodInvocation> newCollection() {
+        return new ArrayList<>();
     }
 
     @Override
     public List<J.MethodInvocation> visitMethodInvocation(J.MethodInvocation method) {
-        return matcher.matches(method) ? singletonList(method) : super.visitMethodInvocation(method);
+        return matcher.matches(method) ? collect(method) : super.visitMethodInvocation(method);
     }
 }
\ No newline at end of file
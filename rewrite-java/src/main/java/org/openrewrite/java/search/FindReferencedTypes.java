@@ -15,8 +15,7 @@
  */
 package org.openrewrite.java.search;
 
-import org.openrewrite.Tree;
-import org.openrewrite.java.AbstractJavaSourceVisitor;
+import org.openrewrite.java.AbstractJavaSourceCollector;
 import org.openrewrite.java.tree.JavaType;
 import org.openrewrite.java.tree.NameTree;
 import org.openrewrite.java.tree.TypeUtils;
@@ -24,21 +23,18 @@ import org.openrewrite.java.tree.TypeUtils;
 import java.util.HashSet;
 import java.util.Set;
 
-import static java.util.Collections.emptySet;
-
-public class FindReferencedTypes extends AbstractJavaSourceVisitor<Set<JavaType.Class>> {
+public class FindReferencedTypes extends AbstractJavaSourceCollector<JavaType.Class, Set<JavaType.Class>> {
     @Override
-    public Set<JavaType.Class> defaultTo(Tree t) {
-        return emptySet();
+    protected Set<JavaType.Class> newCollection() {
+        return new HashSet<>();
     }
 
     @Override
     public Set<JavaType.Class> visitTypeName(NameTree name) {
-        Set<JavaType.Class> referenced = new HashSet<>(super.visitTypeName(name));
         JavaType.Class asClass = TypeUtils.asClass(name.getType());
         if (asClass != null) {
-            referenced.add(asClass);
+            collect(asClass);
         }
-        return referenced;
+        return super.visitTypeName(name);
     }
 }
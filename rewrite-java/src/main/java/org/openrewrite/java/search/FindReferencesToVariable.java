@@ -18,15 +18,14 @@ package org.openrewrite.java.search;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Tags;
 import org.openrewrite.Tree;
+import org.openrewrite.java.AbstractJavaSourceCollector;
 import org.openrewrite.java.AbstractJavaSourceVisitor;
 import org.openrewrite.java.tree.J;
 
+import java.util.ArrayList;
 import java.util.List;
 
-import static java.util.Collections.emptyList;
-import static java.util.Collections.singletonList;
-
-public class FindReferencesToVariable extends AbstractJavaSourceVisitor<List<Tree>> {
+public class FindReferencesToVariable extends AbstractJavaSourceCollector<Tree, List<Tree>> {
     private final J.Ident variable;
 
     public FindReferencesToVariable(J.Ident variable) {
@@ -39,23 +38,23 @@ public class FindReferencesToVariable extends AbstractJavaSourceVisitor<List<Tre
     }
 
     @Override
-    public List<Tree> defaultTo(Tree t) {
-        return emptyList();
+    protected List<Tree> newCollection() {
+        return new ArrayList<>();
     }
 
     @Override
     public List<Tree> visitAssign(J.Assign assign) {
-        return hasReference(assign.getVariable()) ? singletonList(assign) : super.visitAssign(assign);
+        return hasReference(assign.getVariable()) ? collect(assign) : super.visitAssign(assign);
     }
 
     @Override
     public List<Tree> visitAssignOp(J.AssignOp assignOp) {
-        return hasReference(assignOp.getVariable()) ? singletonList(assignOp) : super.visitAssignOp(assignOp);
+        return hasReference(assignOp.getVariable()) ? collect(assignOp) : super.visitAssignOp(assignOp);
     }
 
     @Override
     public List<Tree> visitUnary(J.Unary unary) {
-        return hasReference(unary.getExpr()) ? singletonList(unary) : super.visitUnary(unary);
+        return hasReference(unary.getExpr()) ? collect(unary) : super.visitUnary(unary);
     }
 
     private boolean hasReference(Tree t) {
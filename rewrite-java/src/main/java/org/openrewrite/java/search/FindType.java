@@ -17,9 +17,7 @@ package org.openrewrite.java.search;
 
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Tags;
-import org.openrewrite.Tree;
-import org.openrewrite.java.AbstractJavaSourceVisitor;
-import org.openrewrite.java.JavaSourceVisitor;
+import org.openrewrite.java.AbstractJavaSourceCollector;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.JavaType;
 import org.openrewrite.java.tree.NameTree;
@@ -32,7 +30,7 @@ import java.util.Set;
 /**
  * Find places where a type is mentioned explicitly, excluding imports.
  */
-public class FindType extends AbstractJavaSourceVisitor<Set<NameTree>> {
+public class FindType extends AbstractJavaSourceCollector<NameTree, Set<NameTree>> {
     private final String clazz;
 
     public FindType(String clazz) {
@@ -46,24 +44,16 @@ public class FindType extends AbstractJavaSourceVisitor<Set<NameTree>> {
     }
 
     @Override
-    public Set<NameTree> defaultTo(Tree t) {
+    protected Set<NameTree> newCollection() {
         return Collections.newSetFromMap(new IdentityHashMap<>());
     }
 
-    @Override
-    public Set<NameTree> reduce(Set<NameTree> r1, Set<NameTree> r2) {
-        r1.addAll(r2);
-        return r1;
-    }
-
     @Override
     public Set<NameTree> visitTypeName(NameTree name) {
         JavaType.Class asClass = TypeUtils.asClass(name.getType());
         if (asClass != null && asClass.getFullyQualifiedName().equals(clazz) &&
                 getCursor().firstEnclosing(J.Import.class) == null) {
-            Set<NameTree> names = defaultTo(name);
-            names.add(name);
-            return names;
+            return collect(name);
         }
 
         return super.visitTypeName(name);
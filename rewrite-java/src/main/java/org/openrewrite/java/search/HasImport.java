@@ -40,6 +40,17 @@ public class HasImport extends AbstractJavaSourceVisitor<Boolean> {
 
     @Override
     public Boolean visitImport(J.Import impoort) {
-        return impoort.isFromType(clazz);
+        if (impoort.isFromType(clazz)) {
+            stopVisiting();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Boolean visitClassDecl(J.ClassDecl classDecl) {
+        // imports come before any class declarations
+        stopVisiting();
+        return false;
     }
 }
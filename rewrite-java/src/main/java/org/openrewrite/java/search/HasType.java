@@ -47,6 +47,7 @@ public class HasType extends AbstractJavaSourceVisitor<Boolean> {
         JavaType.Class asClass = TypeUtils.asClass(name.getType());
         if (asClass != null && asClass.getFullyQualifiedName().equals(clazz) &&
                 getCursor().firstEnclosing(J.Import.class) == null) {
+            stopVisiting();
             return true;
         }
         return super.visitTypeName(name);
@@ -16,16 +16,19 @@
 package org.openrewrite.java.tree;
 
 import com.fasterxml.jackson.annotation.*;
-import com.koloboke.collect.map.hash.HashObjObjMaps;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 import org.openrewrite.*;
+import org.openrewrite.internal.ContentHash;
+import org.openrewrite.internal.PrintOutput;
+import org.openrewrite.internal.WeakInterner;
 import org.openrewrite.internal.lang.NonNull;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.java.JavaSourceVisitor;
 import org.openrewrite.java.JavaStyle;
 import org.openrewrite.java.MethodMatcher;
 import org.openrewrite.java.internal.PrintJava;
+import org.openrewrite.java.internal.TypesInUse;
 import org.openrewrite.java.search.*;
 
 import java.io.Serializable;
@@ -60,7 +63,14 @@ public interface J extends Serializable, Tree {
 
     @Override
     default String print() {
-        return new PrintJava().visit(this);
+        StringBuilder out = new StringBuilder();
+        printTo(out);
+        return out.toString();
+    }
+
+    @Override
+    default void printTo(PrintOutput out) {
+        new PrintJava(out).visit(this);
     }
 
     @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
@@ -1110,6 +1120,21 @@ public interface J extends Serializable, Tree {
         @With
         Collection<JavaStyle> styles;
 
+        /**
+         * The fully qualified names of every type referenced in this compilation unit, along with their supertypes.
+         * Computed at most once per compilation unit, so that visitors can cheaply rule out a compilation unit
+         * without visiting it.
+         */
+        @Getter(lazy = true)
+        @JsonIgnore
+        @ToString.Exclude
+        Set<String> typesInUse = TypesInUse.build(this);
+
+        @Getter(lazy = true)
+        @JsonIgnore
+        @ToString.Exclude
+        long contentHash = ContentHash.of(this);
+
         @Override
         public <R> R acceptJava(JavaSourceVisitor<R> v) {
             return v.visitCompilationUnit(this);
@@ -1486,7 +1511,7 @@ public interface J extends Serializable, Tree {
     @EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
     @Getter
     class Ident implements J, TypeTree, Expression {
-        private static final Map<String, Map<JavaType, IdentFlyweight>> flyweights = HashObjObjMaps.newMutableMap();
+        private static final WeakInterner<IdentFlyweight, IdentFlyweight> flyweights = new WeakInterner<>("java.ident");
 
         @EqualsAndHashCode.Include
         UUID id;
@@ -1532,15 +1557,12 @@ public interface J extends Serializable, Tree {
                                   @JsonProperty("simpleName") String simpleName,
                                   @JsonProperty("type") @Nullable JavaType type,
                                   @JsonProperty("formatting") Formatting formatting) {
-            synchronized (flyweights) {
-                return new Ident(
-                        id,
-                        flyweights
-                                .computeIfAbsent(simpleName, n -> HashObjObjMaps.newMutableMap())
-                                .computeIfAbsent(type, t -> new IdentFlyweight(simpleName, t)),
-                        formatting
-                );
-            }
+            // the interned flyweight must not be the key, which the table refers to strongly
+            return new Ident(
+                    id,
+                    flyweights.intern(new IdentFlyweight(simpleName, type), f -> new IdentFlyweight(f.simpleName, f.type)),
+                    formatting
+            );
         }
 
         public static Ident buildClassName(String fullyQualifiedName) {
@@ -16,25 +16,22 @@
 package org.openrewrite.java.tree;
 
 import com.fasterxml.jackson.annotation.*;
-import com.koloboke.collect.map.hash.HashObjObjMaps;
-import com.koloboke.collect.set.hash.HashObjSet;
-import com.koloboke.collect.set.hash.HashObjSets;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.With;
 import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.internal.TypeFlyweights;
 
 import java.io.Serializable;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Parameter;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singleton;
 import static java.util.Comparator.comparing;
-import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
 import static org.openrewrite.Formatting.EMPTY;
 import static org.openrewrite.Tree.randomId;
@@ -44,8 +41,28 @@ import static org.openrewrite.Tree.randomId;
 public interface JavaType extends Serializable {
     boolean deepEquals(@Nullable JavaType type);
 
+    /**
+     * A hash code consistent with {@link #deepEquals(JavaType)}, so that types whose structural hashes differ
+     * are known not to be deeply equal without comparing them. Class and method types compute it once when
+     * they are built, so for every other type it only costs as much as the type's immediate structure.
+     *
+     * @return A hash of the structure of this type.
+     */
+    int structuralHash();
+
     TypeTree toTypeTree();
 
+    /**
+     * Forget every class and method type built so far, for example between parsing unrelated projects
+     * in a long-lived process. Types that are still referenced by trees remain valid, but are no longer
+     * canonical, so types built afterwards will not be the same instances as them.
+     */
+    static void resetFlyweights() {
+        Class.flyweights.clear();
+        Class.flyweights.intern(Class.OBJECT.getFullyQualifiedName(), Class.OBJECT, false);
+        Method.flyweights.clear();
+    }
+
     @Data
     class MultiCatch implements JavaType {
         private final List<JavaType> throwableTypes;
@@ -56,6 +73,11 @@ public interface JavaType extends Serializable {
                     TypeUtils.deepEquals(throwableTypes, ((MultiCatch) type).throwableTypes);
         }
 
+        @Override
+        public int structuralHash() {
+            return TypeUtils.structuralHash(throwableTypes);
+        }
+
         @Override
         public TypeTree toTypeTree() {
             return new J.MultiCatch(randomId(), throwableTypes.stream()
@@ -65,6 +87,13 @@ public interface JavaType extends Serializable {
     }
 
     abstract class FullyQualified implements JavaType {
+        // memoized, since they are asked for over and over again when managing imports and matching methods
+        @Nullable
+        private transient volatile String className;
+
+        @Nullable
+        private transient volatile String packageName;
+
         public abstract String getFullyQualifiedName();
 
         @Override
@@ -73,35 +102,62 @@ public interface JavaType extends Serializable {
                     .withType(JavaType.Class.build(getFullyQualifiedName()));
         }
 
+        /**
+         * @return The parts of the fully qualified name from the first one that doesn't begin with a lower case
+         * letter, e.g. {@code Map.Entry} for {@code java.util.Map.Entry}.
+         */
         @JsonIgnore
         public String getClassName() {
-            AtomicBoolean dropWhile = new AtomicBoolean(false);
-            return Arrays.stream(getFullyQualifiedName().split("\\."))
-                    .filter(part -> {
-                        dropWhile.set(dropWhile.get() || !Character.isLowerCase(part.charAt(0)));
-                        return dropWhile.get();
-                    })
-                    .collect(joining("."));
+            String c = className;
+            if (c == null) {
+                String fqn = getFullyQualifiedName();
+                c = "";
+                int part = 0;
+                while (part < fqn.length()) {
+                    if (!Character.isLowerCase(fqn.charAt(part))) {
+                        c = fqn.substring(part);
+                        break;
+                    }
+                    part = fqn.indexOf('.', part) + 1;
+                    if (part == 0) {
+                        break;
+                    }
+                }
+                className = c;
+            }
+            return c;
         }
 
+        /**
+         * @return The parts of the fully qualified name before the first one that begins with an upper case
+         * letter, e.g. {@code java.util} for {@code java.util.Map.Entry}.
+         */
         @JsonIgnore
         public String getPackageName() {
-            AtomicBoolean takeWhile = new AtomicBoolean(true);
-            return Arrays.stream(getFullyQualifiedName().split("\\."))
-                    .filter(part -> {
-                        takeWhile.set(takeWhile.get() && !Character.isUpperCase(part.charAt(0)));
-                        return takeWhile.get();
-                    })
-                    .collect(joining("."));
+            String p = packageName;
+            if (p == null) {
+                String fqn = getFullyQualifiedName();
+                p = fqn;
+                int part = 0;
+                while (part < fqn.length()) {
+                    if (Character.isUpperCase(fqn.charAt(part))) {
+                        p = part == 0 ? "" : fqn.substring(0, part - 1);
+                        break;
+                    }
+                    part = fqn.indexOf('.', part) + 1;
+                    if (part == 0) {
+                        break;
+                    }
+                }
+                packageName = p;
+            }
+            return p;
         }
 
         @JsonIgnore
         public boolean isAssignableFrom(@Nullable JavaType.Class clazz) {
             return clazz != null && (this == Class.OBJECT ||
-                    getFullyQualifiedName().equals(clazz.fullyQualifiedName) ||
-                    isAssignableFrom(clazz.getSupertype()) ||
-                    clazz.getInterfaces().stream().anyMatch(i -> i instanceof Class && isAssignableFrom((Class) i))
-            );
+                    clazz.getAssignableTo().contains(getFullyQualifiedName()));
         }
     }
 
@@ -119,12 +175,17 @@ public interface JavaType extends Serializable {
             return type instanceof ShallowClass &&
                     fullyQualifiedName.equals(((ShallowClass) type).fullyQualifiedName);
         }
+
+        @Override
+        public int structuralHash() {
+            return fullyQualifiedName.hashCode();
+        }
     }
 
     @Getter
     class Class extends FullyQualified {
         // there shouldn't be too many distinct types represented by the same fully qualified name
-        private static final Map<String, HashObjSet<Class>> flyweights = HashObjObjMaps.newMutableMap();
+        private static final TypeFlyweights<String, Class> flyweights = new TypeFlyweights<>("java.class");
 
         public static final Class OBJECT = build("java.lang.Object");
 
@@ -134,11 +195,22 @@ public interface JavaType extends Serializable {
         private final List<JavaType> interfaces;
 
         @Nullable
-        private volatile List<Method> constructors;
+        private final List<Method> constructors;
+
+        @Nullable
+        @Getter(AccessLevel.NONE)
+        private transient volatile List<Method> reflectedConstructors;
 
         @Nullable
         private final Class supertype;
 
+        @JsonIgnore
+        @Getter(AccessLevel.NONE)
+        private final int structuralHash;
+
+        @Nullable
+        private transient volatile Set<String> assignableTo;
+
         private Class(String fullyQualifiedName,
                       List<Var> members,
                       List<JavaType> typeParameters,
@@ -151,6 +223,13 @@ public interface JavaType extends Serializable {
             this.interfaces = interfaces;
             this.constructors = constructors;
             this.supertype = supertype;
+
+            int hash = fullyQualifiedName.hashCode();
+            hash = 31 * hash + TypeUtils.structuralHash(members);
+            hash = 31 * hash + TypeUtils.structuralHash(supertype);
+            hash = 31 * hash + TypeUtils.structuralHash(typeParameters);
+            hash = 31 * hash + (constructors == null ? 0 : TypeUtils.structuralHash(constructors));
+            this.structuralHash = hash;
         }
 
         /**
@@ -191,21 +270,24 @@ public interface JavaType extends Serializable {
                     members.stream().sorted(comparing(Var::getName)).collect(toList()),
                     typeParameters, interfaces, constructors, supertype);
 
-            synchronized (flyweights) {
-                Set<JavaType.Class> variants = flyweights.computeIfAbsent(fullyQualifiedName, fqn -> HashObjSets.newMutableSet());
-                return (!relaxedClassTypeMatching ? variants.stream().filter(v -> v.deepEquals(test)) : variants.stream())
-                        .findAny()
-                        .orElseGet(() -> {
-                            variants.add(test);
-                            return test;
-                        });
+            Class interned = flyweights.intern(fullyQualifiedName, test, relaxedClassTypeMatching);
+            if (relaxedClassTypeMatching && interned != test && isRicherThan(test, interned)) {
+                // any variant would do, but not one built with less information than we have, such as one built only
+                // from the fully qualified name, since its constructors would be reflected from this tool's classpath
+                return flyweights.intern(fullyQualifiedName, test, false);
             }
+            return interned;
+        }
+
+        private static boolean isRicherThan(Class c, Class variant) {
+            return (c.constructors != null && variant.constructors == null) ||
+                    (!c.members.isEmpty() && variant.members.isEmpty());
         }
 
         /**
-         * Lazily built so that a {@link org.openrewrite.java.internal.grammar.JavaParser} operating over a set of code
-         * has an opportunity to build {@link Class} instances for sources found in the repo that can provide richer information
-         * for constructor parameter types.
+         * Captured from compiler symbols when the type is parsed, so they reflect the classpath of the code being parsed.
+         * For a class type that no parser captured constructors for, such as one built only from its fully qualified name,
+         * they are reflected from this tool's own classpath the first time they are asked for.
          *
          * @return The set of public constructors for a class.
          */
@@ -214,31 +296,63 @@ public interface JavaType extends Serializable {
                 return constructors;
             }
 
-            synchronized (flyweights) {
-                List<Method> reflectedConstructors = new ArrayList<>();
-                try {
-                    java.lang.Class<?> reflectionClass = java.lang.Class.forName(fullyQualifiedName, false, JavaType.class.getClassLoader());
-                    for (Constructor<?> constructor : reflectionClass.getConstructors()) {
-                        ShallowClass selfType = new ShallowClass(fullyQualifiedName);
-
-                        // TODO can we generate a generic signature as well?
-                        Method.Signature resolvedSignature = new Method.Signature(selfType, Arrays.stream(constructor.getParameterTypes())
-                                .map(pt -> Class.build(pt.getName()))
-                                .collect(toList()));
-
-                        List<String> parameterNames = Arrays.stream(constructor.getParameters()).map(Parameter::getName).collect(toList());
-
-                        // Name each constructor "<reflection_constructor>" to intentionally disambiguate from method signatures parsed
-                        // by JavaParser, which may have richer information but which would only be available for types found in the source
-                        // repository.
-                        reflectedConstructors.add(Method.build(selfType, "<reflection_constructor>", resolvedSignature, resolvedSignature,
-                                parameterNames, singleton(Flag.Public)));
+            List<Method> reflected = reflectedConstructors;
+            if (reflected == null) {
+                reflected = reflectConstructors();
+                reflectedConstructors = reflected;
+            }
+            return reflected;
+        }
+
+        private List<Method> reflectConstructors() {
+            List<Method> reflectedConstructors = new ArrayList<>();
+            try {
+                java.lang.Class<?> reflectionClass = java.lang.Class.forName(fullyQualifiedName, false, JavaType.class.getClassLoader());
+                for (Constructor<?> constructor : reflectionClass.getConstructors()) {
+                    ShallowClass selfType = new ShallowClass(fullyQualifiedName);
+
+                    // TODO can we generate a generic signature as well?
+                    Method.Signature resolvedSignature = new Method.Signature(selfType, Arrays.stream(constructor.getParameterTypes())
+                            .map(pt -> Class.build(pt.getName()))
+                            .collect(toList()));
+
+                    List<String> parameterNames = Arrays.stream(constructor.getParameters()).map(Parameter::getName).collect(toList());
+
+                    // Name each constructor "<reflection_constructor>" to intentionally disambiguate from method signatures parsed
+                    // by JavaParser, which may have richer information but which would only be available for types found in the source
+                    // repository.
+                    reflectedConstructors.add(Method.build(selfType, "<reflection_constructor>", resolvedSignature, resolvedSignature,
+                            parameterNames, singleton(Flag.Public)));
+                }
+            } catch (ClassNotFoundException | LinkageError ignored) {
+                // oh well, we tried
+            }
+            return reflectedConstructors;
+        }
+
+        /**
+         * Computed at most once per class type, so that subtype checks don't have to walk the type hierarchy.
+         *
+         * @return The fully qualified names of this class and of all of its supertypes and interfaces.
+         */
+        @JsonIgnore
+        public Set<String> getAssignableTo() {
+            Set<String> a = assignableTo;
+            if (a == null) {
+                a = new HashSet<>();
+                a.add(fullyQualifiedName);
+                if (supertype != null) {
+                    a.addAll(supertype.getAssignableTo());
+                }
+                for (JavaType i : interfaces) {
+                    if (i instanceof Class) {
+                        a.addAll(((Class) i).getAssignableTo());
                     }
-                } catch (ClassNotFoundException ignored) {
-                    // oh well, we tried
                 }
-                return reflectedConstructors;
+                a = Collections.unmodifiableSet(a);
+                assignableTo = a;
             }
+            return a;
         }
 
         @JsonIgnore
@@ -260,10 +374,19 @@ public interface JavaType extends Serializable {
             }
 
             Class c = (Class) type;
-            return fullyQualifiedName.equals(c.fullyQualifiedName) &&
+            return c == this || structuralHash == c.structuralHash &&
+                    fullyQualifiedName.equals(c.fullyQualifiedName) &&
                     TypeUtils.deepEquals(members, c.members) &&
                     TypeUtils.deepEquals(supertype, c.supertype) &&
-                    TypeUtils.deepEquals(typeParameters, c.typeParameters);
+                    TypeUtils.deepEquals(typeParameters, c.typeParameters) &&
+                    (constructors == null ?
+                            c.constructors == null :
+                            c.constructors != null && TypeUtils.deepEquals(constructors, c.constructors));
+        }
+
+        @Override
+        public int structuralHash() {
+            return structuralHash;
         }
     }
 
@@ -276,6 +399,11 @@ public interface JavaType extends Serializable {
         public boolean deepEquals(JavaType type) {
             return this.equals(type);
         }
+
+        @Override
+        public int structuralHash() {
+            return fullyQualifiedName.hashCode();
+        }
     }
 
     @Data
@@ -302,6 +430,11 @@ public interface JavaType extends Serializable {
                     flags.equals(v.flags);
         }
 
+        @Override
+        public int structuralHash() {
+            return 31 * (31 * name.hashCode() + TypeUtils.structuralHash(type)) + TypeUtils.structuralHash(flags);
+        }
+
         @Override
         public TypeTree toTypeTree() {
             return type == null ? null : type.toTypeTree();
@@ -310,7 +443,7 @@ public interface JavaType extends Serializable {
 
     @Getter
     class Method implements JavaType {
-        private static final Map<FullyQualified, Map<String, Set<Method>>> flyweights = HashObjObjMaps.newMutableMap();
+        private static final TypeFlyweights<DeclaringTypeAndName, Method> flyweights = new TypeFlyweights<>("java.method");
 
         @With
         private final FullyQualified declaringType;
@@ -323,6 +456,10 @@ public interface JavaType extends Serializable {
         @With
         private final Set<Flag> flags;
 
+        @JsonIgnore
+        @Getter(AccessLevel.NONE)
+        private final int structuralHash;
+
         private Method(FullyQualified declaringType, String name, Signature genericSignature, Signature resolvedSignature, List<String> paramNames, Set<Flag> flags) {
             this.declaringType = declaringType;
             this.name = name;
@@ -330,6 +467,13 @@ public interface JavaType extends Serializable {
             this.resolvedSignature = resolvedSignature;
             this.paramNames = paramNames;
             this.flags = flags;
+
+            int hash = paramNames.hashCode();
+            hash = 31 * hash + TypeUtils.structuralHash(flags);
+            hash = 31 * hash + declaringType.structuralHash();
+            hash = 31 * hash + signatureStructuralHash(genericSignature);
+            hash = 31 * hash + signatureStructuralHash(resolvedSignature);
+            this.structuralHash = hash;
         }
 
         @JsonCreator
@@ -340,21 +484,13 @@ public interface JavaType extends Serializable {
                                    @JsonProperty("paramNames") List<String> paramNames,
                                    @JsonProperty("flags") Set<Flag> flags) {
             Method test = new Method(declaringType, name, genericSignature, resolvedSignature, paramNames, flags);
+            return flyweights.intern(new DeclaringTypeAndName(declaringType, name), test, false);
+        }
 
-            synchronized (flyweights) {
-                Set<Method> methods = flyweights
-                        .computeIfAbsent(declaringType, dt -> HashObjObjMaps.newMutableMap())
-                        .computeIfAbsent(name, n -> HashObjSets.newMutableSet());
-
-                return methods
-                        .stream()
-                        .filter(m -> m.deepEquals(test))
-                        .findAny()
-                        .orElseGet(() -> {
-                            methods.add(test);
-                            return test;
-                        });
-            }
+        @Data
+        private static class DeclaringTypeAndName {
+            private final FullyQualified declaringType;
+            private final String name;
         }
 
         @Data
@@ -371,6 +507,10 @@ public interface JavaType extends Serializable {
                     TypeUtils.deepEquals(s1.paramTypes, s2.paramTypes);
         }
 
+        private static int signatureStructuralHash(@Nullable Signature s) {
+            return s == null ? 0 : 31 * TypeUtils.structuralHash(s.returnType) + TypeUtils.structuralHash(s.paramTypes);
+        }
+
         public boolean hasFlags(Flag... test) {
             return Arrays.stream(test).allMatch(flags::contains);
         }
@@ -382,13 +522,19 @@ public interface JavaType extends Serializable {
             }
 
             Method m = (Method) type;
-            return paramNames.equals(m.paramNames) &&
+            return m == this || structuralHash == m.structuralHash &&
+                    paramNames.equals(m.paramNames) &&
                     flags.equals(m.flags) &&
                     declaringType.deepEquals(m.declaringType) &&
                     signatureDeepEquals(genericSignature, m.genericSignature) &&
                     signatureDeepEquals(resolvedSignature, m.resolvedSignature);
         }
 
+        @Override
+        public int structuralHash() {
+            return structuralHash;
+        }
+
         @Override
         public TypeTree toTypeTree() {
             throw new UnsupportedOperationException("Cannot build a type tree for a Method");
@@ -414,6 +560,11 @@ public interface JavaType extends Serializable {
                     TypeUtils.deepEquals(bound, generic.bound);
         }
 
+        @Override
+        public int structuralHash() {
+            return 31 * fullyQualifiedName.hashCode() + TypeUtils.structuralHash(bound);
+        }
+
         @Override
         public TypeTree toTypeTree() {
             throw new UnsupportedOperationException("Cannot build a type tree for a GenericTypeVariable");
@@ -429,6 +580,11 @@ public interface JavaType extends Serializable {
             return type instanceof Array && elemType.deepEquals(((Array) type).elemType);
         }
 
+        @Override
+        public int structuralHash() {
+            return 31 * elemType.structuralHash() + 1;
+        }
+
         @Override
         public TypeTree toTypeTree() {
             return new J.ArrayType(randomId(), elemType.toTypeTree(), emptyList(), EMPTY);
@@ -509,6 +665,11 @@ public interface JavaType extends Serializable {
             return this == type;
         }
 
+        @Override
+        public int structuralHash() {
+            return ordinal();
+        }
+
         @Override
         public TypeTree toTypeTree() {
             return new J.Primitive(randomId(), this, EMPTY);
@@ -19,6 +19,7 @@ import org.openrewrite.internal.lang.Nullable;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 import static java.util.Collections.emptyList;
 
@@ -107,6 +108,30 @@ public class TypeUtils {
         return false;
     }
 
+    static int structuralHash(@Nullable JavaType t) {
+        return t == null ? 0 : t.structuralHash();
+    }
+
+    /**
+     * Hashes flags by their ordinals rather than {@link Set#hashCode()}, which sums the identity hash codes of enum
+     * constants and so differs from one JVM to the next.
+     */
+    static int structuralHash(Set<Flag> flags) {
+        int hash = 0;
+        for (Flag flag : flags) {
+            hash |= 1 << flag.ordinal();
+        }
+        return hash;
+    }
+
+    static int structuralHash(List<? extends JavaType> ts) {
+        int hash = 1;
+        for (JavaType t : ts) {
+            hash = 31 * hash + structuralHash(t);
+        }
+        return hash;
+    }
+
     static boolean deepEquals(List<? extends JavaType> ts1, List<? extends JavaType> ts2) {
         if (ts1.size() != ts2.size()) {
             return false;
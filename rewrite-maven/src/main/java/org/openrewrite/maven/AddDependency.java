@@ -106,7 +106,7 @@ public class AddDependency extends MavenRefactorVisitor {
                         root.getChildren());
                 List<Xml.Tag> content = new ArrayList<>(root.getChildren());
 
-                Formatting fmt = format(formatter.findIndent(0, root.getChildren().toArray(new Tree[0])).getPrefix());
+                Formatting fmt = format(getFormatter().findIndent(0, root.getChildren().toArray(new Tree[0])).getPrefix());
                 content.add(
                         new Xml.Tag(
                                 randomId(),
@@ -136,7 +136,7 @@ public class AddDependency extends MavenRefactorVisitor {
             Maven.Pom p = refactor(pom, super::visitPom);
             List<Maven.Dependency> dependencies = new ArrayList<>(pom.getDependencies());
 
-            Formatter.Result indent = formatter.findIndent(0, pom.getDocument().getRoot()
+            Formatter.Result indent = getFormatter().findIndent(0, pom.getDocument().getRoot()
                     .getChild("dependencies").get());
 
             // TODO if the dependency is manageable, make it managed
@@ -17,6 +17,7 @@ package org.openrewrite.maven;
 
 import org.eclipse.aether.repository.RemoteRepository;
 import org.openrewrite.Parser;
+import org.openrewrite.internal.OriginalSource;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.maven.tree.Maven;
 import org.openrewrite.maven.tree.MavenModel;
@@ -32,12 +33,14 @@ import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
 
 public class MavenParser implements Parser<Maven.Pom> {
-    private final XmlParser xmlParser = new XmlParser();
+    private final XmlParser xmlParser;
     private final boolean resolveDependencies;
     private final File localRepository;
     private final List<RemoteRepository> remoteRepositories;
 
-    private MavenParser(boolean resolveDependencies, File localRepository, List<RemoteRepository> remoteRepositories) {
+    private MavenParser(boolean resolveDependencies, File localRepository, List<RemoteRepository> remoteRepositories,
+                        @Nullable OriginalSource originalSource) {
+        this.xmlParser = new XmlParser(originalSource);
         this.resolveDependencies = resolveDependencies;
         this.localRepository = localRepository;
         this.remoteRepositories = remoteRepositories;
@@ -69,6 +72,9 @@ public class MavenParser implements Parser<Maven.Pom> {
         private File localRepository = new File(System.getProperty("user.home") + "/.m2");
         private List<RemoteRepository> remoteRepositories = new ArrayList<>();
 
+        @Nullable
+        private OriginalSource originalSource;
+
         public Builder() {
             remoteRepositories.add(new RemoteRepository.Builder("central", "default",
                     "https://repo1.maven.org/maven2/").build()
@@ -80,6 +86,15 @@ public class MavenParser implements Parser<Maven.Pom> {
             return this;
         }
 
+        /**
+         * @param originalSource Retains the source of each POM parsed, or {@code null} to retain nothing.
+         * @return This builder.
+         */
+        public Builder retainOriginalSource(@Nullable OriginalSource originalSource) {
+            this.originalSource = originalSource;
+            return this;
+        }
+
         public Builder resolveDependencies(boolean resolveDependencies) {
             this.resolveDependencies = resolveDependencies;
             return this;
@@ -96,7 +111,7 @@ public class MavenParser implements Parser<Maven.Pom> {
         }
 
         public MavenParser build() {
-            return new MavenParser(resolveDependencies, localRepository, remoteRepositories);
+            return new MavenParser(resolveDependencies, localRepository, remoteRepositories, originalSource);
         }
     }
 }
@@ -22,14 +22,21 @@ import org.openrewrite.xml.XmlRefactorVisitor;
 import org.openrewrite.xml.tree.Xml;
 
 public class MavenRefactorVisitor extends AbstractRefactorVisitor<Maven> implements MavenSourceVisitor<Maven> {
-    protected Formatter formatter;
+    private final ThreadLocal<Formatter> formatter = new ThreadLocal<>();
+
+    /**
+     * @return A formatter for the source being visited on this thread.
+     */
+    protected Formatter getFormatter() {
+        return formatter.get();
+    }
 
     XmlRefactorVisitor xmlRefactorVisitor = new XmlRefactorVisitor() {
     };
 
     @Override
     public Maven visitPom(Maven.Pom pom) {
-        formatter = new Formatter(pom.getDocument());
+        formatter.set(new Formatter(pom.getDocument()));
         Maven.Pom p = pom;
         p = p.withParent(refactor(p.getParent()));
         p = p.withDependencyManagement(refactor(p.getDependencyManagement()));
@@ -65,8 +65,9 @@ class MavenTagInsertionComparator implements Comparator<Xml.Tag> {
     private final Map<Xml.Tag, Integer> existingIndices = new IdentityHashMap<>();
 
     MavenTagInsertionComparator(List<Xml.Tag> existingTags) {
-        for (int i = 0; i < existingTags.size(); i++) {
-            existingIndices.put(existingTags.get(i), i);
+        int i = 0;
+        for (Xml.Tag existingTag : existingTags) {
+            existingIndices.put(existingTag, i++);
         }
     }
 
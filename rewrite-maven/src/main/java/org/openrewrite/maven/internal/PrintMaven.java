@@ -16,20 +16,33 @@
 package org.openrewrite.maven.internal;
 
 import org.openrewrite.Tree;
+import org.openrewrite.internal.PrintOutput;
 import org.openrewrite.maven.AbstractMavenSourceVisitor;
 import org.openrewrite.maven.tree.Maven;
 import org.openrewrite.xml.internal.PrintXml;
 
-public class PrintMaven extends AbstractMavenSourceVisitor<String> {
-    private final PrintXml printXml = new PrintXml();
+public class PrintMaven extends AbstractMavenSourceVisitor<PrintOutput> {
+    private final PrintOutput out;
+    private final PrintXml printXml;
+
+    public PrintMaven(PrintOutput out) {
+        this.out = out;
+        this.printXml = new PrintXml(out);
+        setBudgetingOff();
+    }
+
+    @Override
+    public PrintOutput defaultTo(Tree t) {
+        return out;
+    }
 
     @Override
-    public String defaultTo(Tree t) {
-        return "";
+    public PrintOutput reduce(PrintOutput r1, PrintOutput r2) {
+        return out;
     }
 
     @Override
-    public String visitPom(Maven.Pom pom) {
+    public PrintOutput visitPom(Maven.Pom pom) {
         return printXml.visitDocument(pom.getDocument());
     }
 }
@@ -19,6 +19,7 @@ import com.fasterxml.jackson.annotation.*;
 import lombok.Getter;
 import lombok.With;
 import org.openrewrite.*;
+import org.openrewrite.internal.PrintOutput;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.maven.MavenSourceVisitor;
 import org.openrewrite.maven.internal.PrintMaven;
@@ -32,7 +33,6 @@ import java.io.Serializable;
 import java.util.*;
 import java.util.stream.Stream;
 
-import static java.util.UUID.randomUUID;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 
@@ -40,7 +40,14 @@ import static java.util.stream.Collectors.toMap;
 public interface Maven extends Serializable, Tree {
     @Override
     default String print() {
-        return new PrintMaven().visit(this);
+        StringBuilder out = new StringBuilder();
+        printTo(out);
+        return out.toString();
+    }
+
+    @Override
+    default void printTo(PrintOutput out) {
+        new PrintMaven(out).visit(this);
     }
 
     @Override
@@ -95,6 +102,11 @@ public interface Maven extends Serializable, Tree {
             return document;
         }
 
+        @Override
+        public long getContentHash() {
+            return document.getContentHash();
+        }
+
         public Pom withDocument(Xml.Document document) {
             return new Pom(model, document);
         }
@@ -317,7 +329,7 @@ public interface Maven extends Serializable, Tree {
         @JsonIgnore
         @Override
         public UUID getId() {
-            return tag == null ? randomUUID() : tag.getId();
+            return tag == null ? Tree.randomId() : tag.getId();
         }
 
         @SuppressWarnings("unchecked")
@@ -17,10 +17,12 @@ package org.openrewrite.properties;
 
 import org.openrewrite.Formatting;
 import org.openrewrite.Parser;
+import org.openrewrite.internal.OriginalSource;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.properties.tree.Properties;
 
 import java.io.*;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -34,12 +36,34 @@ import static org.openrewrite.Formatting.format;
 import static org.openrewrite.Tree.randomId;
 
 public class PropertiesParser implements Parser<Properties.File> {
+    @Nullable
+    private final OriginalSource originalSource;
+
+    public PropertiesParser() {
+        this(null);
+    }
+
+    /**
+     * @param originalSource Retains the source of each file parsed, or {@code null} to retain nothing.
+     */
+    public PropertiesParser(@Nullable OriginalSource originalSource) {
+        this.originalSource = originalSource;
+    }
 
     @Override
     public List<Properties.File> parse(List<Path> sourceFiles, @Nullable Path relativeTo) {
         return sourceFiles.stream().map(sourceFile -> {
+            Path path = relativeTo == null ? sourceFile : relativeTo.relativize(sourceFile);
+            if (originalSource != null) {
+                try {
+                    return parseFromSource(path, new String(Files.readAllBytes(sourceFile)));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
             try (FileInputStream fis = new FileInputStream(sourceFile.toFile())) {
-                return parseFromInput(relativeTo == null ? sourceFile : relativeTo.relativize(sourceFile), fis);
+                return parseFromInput(path, fis);
             } catch (IOException e) {
                 throw new UncheckedIOException(e);
             }
@@ -49,11 +73,15 @@ public class PropertiesParser implements Parser<Properties.File> {
     @Override
     public List<Properties.File> parse(List<String> sourceFiles) {
         return sourceFiles.stream()
-                .map(sourceFile -> parseFromInput(Paths.get("unknown.properties"),
-                        new ByteArrayInputStream(sourceFile.getBytes())))
+                .map(sourceFile -> parseFromSource(Paths.get("unknown.properties"), sourceFile))
                 .collect(toList());
     }
 
+    private Properties.File parseFromSource(Path sourceFile, String source) {
+        Properties.File parsed = parseFromInput(sourceFile, new ByteArrayInputStream(source.getBytes()));
+        return originalSource == null ? parsed : originalSource.retain(parsed, source);
+    }
+
     private Properties.File parseFromInput(Path sourceFile, InputStream source) {
         List<Properties.Content> contents = new ArrayList<>();
 
@@ -16,26 +16,47 @@
 package org.openrewrite.properties.internal;
 
 import org.openrewrite.Tree;
+import org.openrewrite.internal.PrintOutput;
+import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.properties.AbstractPropertiesSourceVisitor;
 import org.openrewrite.properties.PropertiesSourceVisitor;
 import org.openrewrite.properties.tree.Properties;
 
-public class PrintProperties extends AbstractPropertiesSourceVisitor<String> {
+public class PrintProperties extends AbstractPropertiesSourceVisitor<PrintOutput> {
+    private final PrintOutput out;
+
+    public PrintProperties(PrintOutput out) {
+        this.out = out;
+        setBudgetingOff();
+    }
+
+    @Override
+    public PrintOutput defaultTo(Tree t) {
+        return out;
+    }
+
+    @Override
+    public PrintOutput reduce(PrintOutput r1, PrintOutput r2) {
+        return out;
+    }
+
     @Override
-    public String defaultTo(Tree t) {
-        return "";
+    public PrintOutput visit(@Nullable Tree tree) {
+        return out.print(tree, super::visit);
     }
 
     @Override
-    public String visitFile(Properties.File file) {
-        return file.getPrefix() + visit(file.getContent()) + file.getSuffix();
+    public PrintOutput visitFile(Properties.File file) {
+        out.append(file.getPrefix());
+        visit(file.getContent());
+        return out.append(file.getSuffix());
     }
 
     @Override
-    public String visitEntry(Properties.Entry entry) {
-        return entry.getPrefix() + entry.getKey() +
-                entry.getEqualsFormatting().getPrefix() + "=" + entry.getEqualsFormatting().getSuffix() +
-                entry.getValue() +
-                entry.getSuffix();
+    public PrintOutput visitEntry(Properties.Entry entry) {
+        return out.append(entry.getPrefix()).append(entry.getKey())
+                .append(entry.getEqualsFormatting().getPrefix()).append('=').append(entry.getEqualsFormatting().getSuffix())
+                .append(entry.getValue())
+                .append(entry.getSuffix());
     }
 }
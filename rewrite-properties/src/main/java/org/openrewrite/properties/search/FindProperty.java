@@ -43,6 +43,7 @@ public class FindProperty extends AbstractPropertiesSourceVisitor<Properties.Ent
     @Override
     public Properties.Entry visitEntry(Properties.Entry entry) {
         if (entry.getKey().equals(key)) {
+            stopVisiting();
             return entry;
         }
         return super.visitEntry(entry);
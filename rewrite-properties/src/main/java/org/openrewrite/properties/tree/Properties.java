@@ -16,14 +16,19 @@
 package org.openrewrite.properties.tree;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 import lombok.With;
 import lombok.experimental.FieldDefaults;
 import org.openrewrite.*;
+import org.openrewrite.internal.ContentHash;
+import org.openrewrite.internal.PrintOutput;
 import org.openrewrite.properties.PropertiesSourceVisitor;
 import org.openrewrite.properties.internal.PrintProperties;
 
@@ -36,7 +41,14 @@ import java.util.UUID;
 public interface Properties extends Serializable, Tree {
     @Override
     default String print() {
-        return new PrintProperties().visit(this);
+        StringBuilder out = new StringBuilder();
+        printTo(out);
+        return out.toString();
+    }
+
+    @Override
+    default void printTo(PrintOutput out) {
+        new PrintProperties(out).visit(this);
     }
 
     @Override
@@ -68,6 +80,11 @@ public interface Properties extends Serializable, Tree {
         @With
         Formatting formatting;
 
+        @Getter(lazy = true)
+        @JsonIgnore
+        @ToString.Exclude
+        long contentHash = ContentHash.of(this);
+
         @Override
         public Formatting getFormatting() {
             return formatting;
@@ -15,6 +15,8 @@
  */
 package org.openrewrite.java
 
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
 import org.junit.jupiter.api.Test
 import org.openrewrite.whenParsedBy
 
@@ -245,4 +247,28 @@ interface ChangeMethodNameTest {
                     }
                 """)
     }
+
+    @Test
+    fun skipCompilationUnitsThatDoNotReferenceTheTargetType(jp: JavaParser) {
+        val (a, c) = jp.parse("""
+            package com.abc;
+            class A {
+               public void test() {
+                   new B().singleArg("boo");
+               }
+            }
+        """.trimIndent(), """
+            package com.abc;
+            class C {
+               public void test() {
+                   "boo".toString();
+               }
+            }
+        """.trimIndent(), b)
+
+        val changeMethodName = ChangeMethodName().apply { setMethod("com.abc.B singleArg(String)"); name = "bar" }
+
+        assertTrue(changeMethodName.isApplicable(a))
+        assertFalse(changeMethodName.isApplicable(c))
+    }
 }
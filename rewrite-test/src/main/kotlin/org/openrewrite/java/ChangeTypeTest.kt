@@ -73,6 +73,26 @@ interface ChangeTypeTest {
                 .isRefactoredTo("public class B extends a.A2 {}")
     }
 
+    @Test
+    fun fullyQualifiedNameWithoutTypeAttribution(jp: JavaParser) {
+        """
+            public class B {
+                public void test() {
+                    a.A1.stat();
+                }
+            }
+        """
+                .whenParsedBy(jp)
+                .whenVisitedBy(changeType)
+                .isRefactoredTo("""
+                    public class B {
+                        public void test() {
+                            a.A2.stat();
+                        }
+                    }
+                """)
+    }
+
     @Test
     fun annotation(jp: JavaParser) {
         "@a.A1 public class B {}"
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.openrewrite.Refactor
+import org.openrewrite.RefactorVisitor
+import org.openrewrite.Tree
+import org.openrewrite.java.tree.J
+import org.openrewrite.whenParsedBy
+
+interface FusedJavaRefactorVisitorTest {
+    companion object {
+        private val b: String = """
+                package com.abc;
+                class B {
+                   public void foo(String s) {}
+                   public void bar(String s) {}
+                }
+            """.trimIndent()
+    }
+
+    @Test
+    fun applyEveryDelegateInOneTraversal(jp: JavaParser) {
+        """
+            package com.abc;
+            class A {
+               public void test() {
+                   new B().foo("boo");
+                   new B().bar("boo");
+               }
+            }
+        """
+                .whenParsedBy(jp)
+                .whichDependsOn(b)
+                .whenVisitedBy(FusedJavaRefactorVisitor("fused", listOf(
+                        ChangeMethodName().apply { setMethod("com.abc.B foo(String)"); name = "foo2" },
+                        ChangeMethodName().apply { setMethod("com.abc.B bar(String)"); name = "bar2" }
+                )))
+                .isRefactoredTo("""
+                    package com.abc;
+                    class A {
+                       public void test() {
+                           new B().foo2("boo");
+                           new B().bar2("boo");
+                       }
+                    }
+                """)
+    }
+
+    @Test
+    fun fuseDelegatesThatFormatUseTheCursorAndRunFollowUpVisitors(jp: JavaParser) {
+        val cu = jp.parse("""
+            package a;
+
+            public class A {
+              private String s;
+
+              public void foo(String t) {
+              }
+            }
+        """.trimIndent())[0]
+
+        // AddField formats against the compilation unit, AddAnnotation looks up the enclosing block with its
+        // cursor, both add imports with a follow-up visitor, and the second ChangeType isn't applicable
+        fun delegates(): List<JavaRefactorVisitor> = listOf(
+                AddField.Scoped(cu.classes[0], AddFieldTest.private, "java.util.List", "list", null),
+                AddAnnotation.Scoped(cu.classes[0].body.statements[0], "lombok.NonNull"),
+                ChangeType().apply { setType("java.lang.String"); setTargetType("java.lang.CharSequence") },
+                ChangeType().apply { setType("java.util.Date"); setTargetType("java.time.Instant") }
+        )
+
+        val fused = FusedJavaRefactorVisitor("fused", delegates())
+        assertThat(fused.isApplicable(cu)).isTrue()
+        assertThat(delegates()[3].isApplicable(cu)).isFalse()
+
+        assertThat(fixedBy(cu, listOf(fused))).isEqualTo(fixedBy(cu, delegates()))
+        assertThat(fixedBy(cu, listOf(fused)))
+                .contains("import lombok.NonNull;", "import java.util.List;")
+                .contains("  private List list;", "  @NonNull")
+                .contains("private CharSequence s;", "foo(CharSequence t)")
+    }
+
+    @Test
+    fun fusedDelegatesVisitingInParallelFormatEachCompilationUnitByItsOwnIndentation(jp: JavaParser) {
+        // even numbered sources are indented with spaces, and odd numbered ones with tabs. Fields are added to
+        // the empty class C, where there are no siblings to take indentation from, so it comes from the whole source.
+        val cus = jp.parse((0 until 20).map { i ->
+            val indent = if (i % 2 == 0) "    " else "\t"
+            "class A$i {\n${indent}class B$i {\n$indent${indent}int n;\n$indent}\n${indent}class C$i {\n$indent}\n}"
+        })
+
+        val fused = FusedJavaRefactorVisitor("fused", cus.map { cu ->
+            AddField.Scoped(cu.classes[0].body.statements[1] as J.ClassDecl, AddFieldTest.private, "java.lang.String", "s", null)
+        })
+
+        val fixed = Refactor().parallel(4).visit(fused).fix(cus)
+                .map { it.fixed as J.CompilationUnit }
+                .sortedBy { it.classes[0].simpleName.substring(1).toInt() }
+
+        assertThat(fixed).hasSize(cus.size)
+        for ((i, cu) in fixed.withIndex()) {
+            val added = cu.print().lines().first { it.contains("private String s;") }
+            assertThat(added.takeWhile { it.isWhitespace() }).matches(if (i % 2 == 0) " +" else "\t+")
+        }
+    }
+
+    private fun fixedBy(cu: J.CompilationUnit, visitors: List<RefactorVisitor<out Tree>>): String =
+            Refactor().visit(visitors).fixed(cu)!!.print()
+}
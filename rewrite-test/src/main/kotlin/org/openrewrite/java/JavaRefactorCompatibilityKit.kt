@@ -58,6 +58,9 @@ abstract class JavaRefactorCompatibilityKit {
     @Nested
     inner class DeleteStatementTck : DeleteStatementTest
 
+    @Nested
+    inner class FusedJavaRefactorVisitorTck : FusedJavaRefactorVisitorTest
+
     @Nested
     inner class GenerateConstructorUsingFieldsTck : GenerateConstructorUsingFieldsTest
 
@@ -67,6 +70,9 @@ abstract class JavaRefactorCompatibilityKit {
     @Nested
     inner class InsertMethodArgumentTck : InsertMethodArgumentTest
 
+    @Nested
+    inner class JavaRefactorVisitorTck : JavaRefactorVisitorTest
+
     @Nested
     inner class MethodMatcherTck : MethodMatcherTest
 
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.openrewrite.Refactor
+import org.openrewrite.java.tree.J
+import java.util.concurrent.ConcurrentHashMap
+
+interface JavaRefactorVisitorTest {
+    @Test
+    fun formatEachCompilationUnitByItsOwnIndentationWhenVisitingInParallel(jp: JavaParser) {
+        // even numbered classes are indented with spaces, and odd numbered ones with tabs
+        val sources = (0 until 40).map { i ->
+            val indent = if (i % 2 == 0) "    " else "\t"
+            "class A$i {\n${indent}int n;\n${indent}int m;\n}"
+        }
+
+        val indentedWithSpaces = ConcurrentHashMap<String, Boolean>()
+        val recordIndentation = object : JavaRefactorVisitor() {
+            override fun visitClassDecl(classDecl: J.ClassDecl): J {
+                indentedWithSpaces[classDecl.simpleName] = getFormatter().isIndentedWithSpaces
+                return super.visitClassDecl(classDecl)
+            }
+        }
+
+        Refactor()
+                .parallel(4)
+                .visit(recordIndentation)
+                .fix(jp.parse(sources))
+
+        assertThat(indentedWithSpaces).hasSize(sources.size)
+        for (i in sources.indices) {
+            assertThat(indentedWithSpaces["A$i"]).isEqualTo(i % 2 == 0)
+        }
+    }
+}
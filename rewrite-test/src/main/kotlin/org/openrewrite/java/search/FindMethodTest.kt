@@ -38,6 +38,22 @@ interface FindMethodTest {
         assertEquals("Collections.emptyList()", m.printTrimmed())
     }
 
+    @Test
+    fun eachVisitCollectsItsOwnResults(jp: JavaParser) {
+        val a = jp.parse("""
+            import java.util.Collections;
+            public class A {
+               Object o1 = Collections.emptyList();
+               Object o2 = Collections.emptyList();
+            }
+        """)[0]
+
+        val findMethods = FindMethods("java.util.Collections emptyList()")
+
+        assertEquals(2, findMethods.visit(a).size)
+        assertEquals(2, findMethods.visit(a).size)
+    }
+
     @Test
     fun findStaticallyImportedMethodCalls(jp: JavaParser) {
         val a = jp.parse("""
@@ -19,6 +19,10 @@ import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.Assertions.assertEquals
 import org.junit.jupiter.api.Test
 import org.openrewrite.java.JavaParser
+import java.io.ByteArrayOutputStream
+import java.io.StringWriter
+import java.nio.channels.Channels
+import java.nio.charset.StandardCharsets
 import java.nio.file.Paths
 
 interface CompilationUnitTest {
@@ -68,4 +72,22 @@ interface CompilationUnitTest {
         
         assertEquals(a.trimIndent(), jp.parse(a)[0].printTrimmed())
     }
+
+    @Test
+    fun printToWriterAndChannel(jp: JavaParser) {
+        val a = jp.parse("""
+            public class A {
+                ${(0 until 1000).joinToString("\n") { "int n$it = $it;" }}
+                String s = "é";
+            }
+        """.trimIndent())[0]
+
+        val writer = StringWriter()
+        a.printTo(writer)
+        assertEquals(a.print(), writer.toString())
+
+        val bytes = ByteArrayOutputStream()
+        a.printTo(Channels.newChannel(bytes), StandardCharsets.UTF_8)
+        assertEquals(a.print(), String(bytes.toByteArray(), StandardCharsets.UTF_8))
+    }
 }
@@ -86,4 +86,20 @@ interface CursorTest {
             }
         }.visit(a)).isEqualTo(1)
     }
+
+    @Test
+    fun cursorOutlivesTheVisitThatProducedIt(jp: JavaParser) {
+        val a = jp.parse("""
+            public class A {
+                public void foo() {}
+            }
+        """.trimIndent())[0]
+
+        val method = a.classes[0].methods[0]
+        val cursor = RetrieveCursor(method).visit(a)!!
+
+        assertSame(method, cursor.getTree<J.MethodDecl>())
+        assertSame(a.classes[0], cursor.firstEnclosing(J.ClassDecl::class.java))
+        assertSame(a, cursor.pathAsStream.reduce { _, t -> t }.get())
+    }
 }
@@ -16,7 +16,10 @@
 package org.openrewrite.java.tree
 
 import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertSame
 import org.junit.jupiter.api.Test
+import org.openrewrite.Formatting
+import org.openrewrite.Tree
 import org.openrewrite.java.JavaParser
 import org.openrewrite.java.asClass
 import org.openrewrite.java.fields
@@ -36,4 +39,12 @@ interface IdentTest {
         assertEquals("n", ident.simpleName)
         assertEquals("java.lang.Integer", ident.type.asClass()?.fullyQualifiedName)
     }
+
+    @Test
+    fun identsWithTheSameNameAndTypeShareAFlyweight(jp: JavaParser) {
+        val n1 = J.Ident.build(Tree.randomId(), "n", JavaType.Primitive.Int, Formatting.EMPTY)
+        val n2 = J.Ident.build(Tree.randomId(), "n", JavaType.Primitive.Int, Formatting.format(" "))
+
+        assertSame(n1.ident, n2.ident)
+    }
 }
@@ -62,11 +62,52 @@ interface JavaTypeTest {
         assertFalse(listArr.isAssignableFrom(collectionArr))
     }
 
+    @Test
+    fun constructorsAreCapturedFromTheParsedSource(jp: JavaParser) {
+        val a = jp.parse("""
+            public class WithConstructors {
+                public WithConstructors(String s, int n) {}
+                WithConstructors() {}
+            }
+        """.trimIndent())[0]
+
+        val constructors = a.classes[0].type.asClass()!!.constructors
+        assertThat(constructors).hasSize(1)
+        assertEquals(listOf("s", "n"), constructors[0].paramNames)
+        assertEquals("java.lang.String", (constructors[0].resolvedSignature.paramTypes[0] as JavaType.FullyQualified).fullyQualifiedName)
+    }
+
+    @Test
+    fun capturedConstructorsAreKeptWhenAClassTypeWasBuiltFromItsNameFirst(jp: JavaParser) {
+        val byName = JavaType.Class.build("BuiltByNameFirst")
+
+        val a = jp.parse("""
+            public class BuiltByNameFirst {
+                public BuiltByNameFirst(String s) {}
+            }
+        """.trimIndent())[0]
+
+        val constructors = a.classes[0].type.asClass()!!.constructors
+        assertThat(constructors).hasSize(1)
+        assertEquals(listOf("s"), constructors[0].paramNames)
+
+        // not on this tool's classpath, so there is nothing to reflect
+        assertThat(byName.constructors).isEmpty()
+    }
+
+    @Test
+    fun constructorsAreReflectedWhenNoParserCapturedThem(jp: JavaParser) {
+        val constructors = JavaType.Class.build("java.util.ArrayList").constructors
+        assertThat(constructors).hasSize(3)
+        assertThat(constructors.map { it.resolvedSignature.paramTypes.size }).containsExactlyInAnyOrder(0, 1, 1)
+    }
+
     @Test
     fun innerClassType(jp: JavaParser) {
         val t = JavaType.Class.build("com.foo.Foo.Bar")
         assertEquals("com.foo.Foo.Bar", t.fullyQualifiedName)
         assertEquals("com.foo", t.packageName)
+        assertEquals("Foo.Bar", t.className)
     }
 
     @Test
@@ -84,6 +125,54 @@ interface JavaTypeTest {
         assertEquals("", c.packageName)
     }
 
+    @Test
+    fun resetFlyweights(jp: JavaParser) {
+        val t = JavaType.Class.build("com.foo.Reset")
+        assertSame(t, JavaType.Class.build("com.foo.Reset"))
+
+        JavaType.resetFlyweights()
+
+        assertNotSame(t, JavaType.Class.build("com.foo.Reset"))
+        assertSame(JavaType.Class.OBJECT, JavaType.Class.build("java.lang.Object"))
+    }
+
+    @Test
+    fun structuralHashIsConsistentWithDeepEquals(jp: JavaParser) {
+        val n = JavaType.Var("n", JavaType.Primitive.Int, setOf(Flag.Private))
+        val sameN = JavaType.Var("n", JavaType.Primitive.Int, setOf(Flag.Private))
+        val m = JavaType.Var("m", JavaType.Primitive.Int, setOf(Flag.Private))
+
+        assertTrue(n.deepEquals(sameN))
+        assertEquals(n.structuralHash(), sameN.structuralHash())
+        assertNotEquals(n.structuralHash(), m.structuralHash())
+
+        val a = JavaType.Class.build("com.foo.Hashed", listOf(n), emptyList(), emptyList(), null, null)
+        val b = JavaType.Class.build("com.foo.Hashed", listOf(m), emptyList(), emptyList(), null, null)
+        assertNotEquals(a.structuralHash(), b.structuralHash())
+        assertFalse(a.deepEquals(b))
+    }
+
+    @Test
+    fun structuralHashIsTheSameInEveryJvm(jp: JavaParser) {
+        val n = JavaType.Var("n", JavaType.Primitive.Int, setOf(Flag.Private, Flag.Final))
+
+        // flags hash by ordinal, not by the identity hash codes of their enum constants
+        assertEquals(31 * (31 * "n".hashCode() + JavaType.Primitive.Int.ordinal) +
+                ((1 shl Flag.Private.ordinal) or (1 shl Flag.Final.ordinal)), n.structuralHash())
+    }
+
+    @Test
+    fun assignableToIncludesSupertypesAndInterfaces(jp: JavaParser) {
+        val i = JavaType.Class.build("com.foo.I")
+        val base = JavaType.Class.build("com.foo.Base", emptyList(), emptyList(), listOf(i), null, null)
+        val sub = JavaType.Class.build("com.foo.Sub", emptyList(), emptyList(), emptyList(), null, base)
+
+        assertThat(sub.assignableTo).containsExactlyInAnyOrder("com.foo.Sub", "com.foo.Base", "com.foo.I")
+        assertTrue(i.isAssignableFrom(sub))
+        assertTrue(base.isAssignableFrom(sub))
+        assertFalse(sub.isAssignableFrom(base))
+    }
+
     @Test
     fun selfReferentialTypeIsShared(jp: JavaParser) {
         val a = jp.parse("public class A { A a; }")[0]
@@ -45,7 +45,7 @@ public class AddToTag  {
             Xml.Tag t = refactor(tag, super::visitTag);
             if (scope.isScope(tag)) {
                 List<Content> content = t.getContent() == null ? new ArrayList<>() : new ArrayList<>(t.getContent());
-                content.add(tagToAdd.withPrefix(formatter.findIndent(enclosingTag().getFormatting().getIndent(), tag).getPrefix()));
+                content.add(tagToAdd.withPrefix(getFormatter().findIndent(enclosingTag().getFormatting().getIndent(), tag).getPrefix()));
                 t = t.withContent(content);
             }
             return t;
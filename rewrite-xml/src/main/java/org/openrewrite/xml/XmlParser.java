@@ -18,6 +18,7 @@ package org.openrewrite.xml;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
 import org.openrewrite.Parser;
+import org.openrewrite.internal.OriginalSource;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.xml.internal.XmlParserVisitor;
 import org.openrewrite.xml.internal.grammar.XMLLexer;
@@ -35,6 +36,20 @@ import java.util.List;
 import static java.util.stream.Collectors.toList;
 
 public class XmlParser implements Parser<Xml.Document> {
+    @Nullable
+    private final OriginalSource originalSource;
+
+    public XmlParser() {
+        this(null);
+    }
+
+    /**
+     * @param originalSource Retains the source of each document parsed, or {@code null} to retain nothing.
+     */
+    public XmlParser(@Nullable OriginalSource originalSource) {
+        this.originalSource = originalSource;
+    }
+
     @Override
     public List<Xml.Document> parse(List<Path> sourceFiles, @Nullable Path relativeTo) {
         return sourceFiles.stream()
@@ -43,8 +58,9 @@ public class XmlParser implements Parser<Xml.Document> {
                         XMLParser parser = new XMLParser(new CommonTokenStream(new XMLLexer(
                                 CharStreams.fromPath(sourceFile))));
 
-                        return new XmlParserVisitor(relativeTo == null ? sourceFile : relativeTo.relativize(sourceFile),
-                                new String(Files.readAllBytes(sourceFile), StandardCharsets.UTF_8)).visitDocument(parser.document());
+                        String source = new String(Files.readAllBytes(sourceFile), StandardCharsets.UTF_8);
+                        return retain(new XmlParserVisitor(relativeTo == null ? sourceFile : relativeTo.relativize(sourceFile),
+                                source).visitDocument(parser.document()), source);
                     } catch (IOException e) {
                         throw new UncheckedIOException(e);
                     }
@@ -58,12 +74,16 @@ public class XmlParser implements Parser<Xml.Document> {
                 .map(xmlSource -> {
                     XMLParser parser = new XMLParser(new CommonTokenStream(new XMLLexer(
                             CharStreams.fromString(xmlSource))));
-                    return new XmlParserVisitor(Paths.get("unknown.xml"), xmlSource)
-                            .visitDocument(parser.document());
+                    return retain(new XmlParserVisitor(Paths.get("unknown.xml"), xmlSource)
+                            .visitDocument(parser.document()), xmlSource);
                 })
                 .collect(toList());
     }
 
+    private Xml.Document retain(Xml.Document document, String source) {
+        return originalSource == null ? document : originalSource.retain(document, source);
+    }
+
     public Xml.Tag parseTag(String tag) {
         XMLParser parser = new XMLParser(new CommonTokenStream(new XMLLexer(
                 CharStreams.fromString(tag))));
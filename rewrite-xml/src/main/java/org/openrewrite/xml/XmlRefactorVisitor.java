@@ -21,11 +21,21 @@ import org.openrewrite.xml.tree.Xml;
 
 public class XmlRefactorVisitor extends AbstractRefactorVisitor<Xml>
         implements XmlSourceVisitor<Xml> {
-    protected Formatter formatter;
+    /**
+     * One per thread, so that a visitor shared by threads formats each document by that document's own conventions.
+     */
+    private final ThreadLocal<Formatter> formatter = new ThreadLocal<>();
+
+    /**
+     * @return A formatter for the source being visited on this thread.
+     */
+    protected Formatter getFormatter() {
+        return formatter.get();
+    }
 
     @Override
     public Xml visitDocument(Xml.Document document) {
-        formatter = new Formatter(document);
+        formatter.set(new Formatter(document));
         Xml.Document d = document;
         d = d.withProlog(refactor(d.getProlog()));
         return d.withRoot(refactor(d.getRoot()));
@@ -16,92 +16,152 @@
 package org.openrewrite.xml.internal;
 
 import org.openrewrite.Tree;
+import org.openrewrite.internal.PrintOutput;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.xml.AbstractXmlSourceVisitor;
 import org.openrewrite.xml.XmlSourceVisitor;
 import org.openrewrite.xml.tree.Xml;
 
-public class PrintXml extends AbstractXmlSourceVisitor<String> {
+public class PrintXml extends AbstractXmlSourceVisitor<PrintOutput> {
+    private final PrintOutput out;
+
+    public PrintXml(PrintOutput out) {
+        this.out = out;
+        setBudgetingOff();
+    }
+
+    @Override
+    public PrintOutput defaultTo(Tree t) {
+        return out;
+    }
+
     @Override
-    public String defaultTo(Tree t) {
-        return "";
+    public PrintOutput reduce(PrintOutput r1, PrintOutput r2) {
+        return out;
     }
 
     @Override
-    public String reduce(String r1, String r2) {
-        return r1 + r2;
+    public PrintOutput visit(@Nullable Tree tree) {
+        return out.print(tree, super::visit);
     }
 
     @Override
-    public String visitDocument(Xml.Document document) {
-        return fmt(document, visit(document.getProlog()) + visit(document.getRoot()));
+    public PrintOutput visitDocument(Xml.Document document) {
+        prefix(document);
+        visit(document.getProlog());
+        visit(document.getRoot());
+        return suffix(document);
     }
 
     @Override
-    public String visitProlog(Xml.Prolog prolog) {
-        return fmt(prolog, visit(prolog.getXmlDecl()) + visit(prolog.getMisc()));
+    public PrintOutput visitProlog(Xml.Prolog prolog) {
+        prefix(prolog);
+        visit(prolog.getXmlDecl());
+        visit(prolog.getMisc());
+        return suffix(prolog);
     }
 
     @Override
-    public String visitTag(Xml.Tag tag) {
-        return fmt(tag, "<" + tag.getName() + visit(tag.getAttributes()) +
-                tag.getBeforeTagDelimiterPrefix() +
-                (tag.getClosing() == null ?
-                        "/>" :
-                        ">" + visit(tag.getContent()) + fmt(tag.getClosing(), "</" + tag.getClosing().getName() + tag.getClosing().getBeforeTagDelimiterPrefix() + ">")
-                )
-        );
+    public PrintOutput visitTag(Xml.Tag tag) {
+        prefix(tag);
+        out.append('<').append(tag.getName());
+        visit(tag.getAttributes());
+        out.append(tag.getBeforeTagDelimiterPrefix());
+        if (tag.getClosing() == null) {
+            out.append("/>");
+        } else {
+            out.append('>');
+            visit(tag.getContent());
+            prefix(tag.getClosing());
+            out.append("</").append(tag.getClosing().getName())
+                    .append(tag.getClosing().getBeforeTagDelimiterPrefix()).append('>');
+            suffix(tag.getClosing());
+        }
+        return suffix(tag);
     }
 
     @Override
-    public String visitAttribute(Xml.Attribute attribute) {
-        String valueDelim = Xml.Attribute.Value.Quote.Double.equals(attribute.getValue().getQuote()) ?
-                "\"" : "'";
+    public PrintOutput visitAttribute(Xml.Attribute attribute) {
+        char valueDelim = Xml.Attribute.Value.Quote.Double.equals(attribute.getValue().getQuote()) ?
+                '"' : '\'';
 
-        return fmt(attribute, fmt(attribute.getKey(), attribute.getKeyAsString()) + "=" +
-                fmt(attribute.getValue(), valueDelim + attribute.getValueAsString() + valueDelim));
+        prefix(attribute);
+        fmt(attribute.getKey(), attribute.getKeyAsString());
+        out.append('=');
+        prefix(attribute.getValue());
+        out.append(valueDelim).append(attribute.getValueAsString()).append(valueDelim);
+        suffix(attribute.getValue());
+        return suffix(attribute);
     }
 
     @Override
-    public String visitComment(Xml.Comment comment) {
-        return fmt(comment, "<!--" + comment.getText() + "-->");
+    public PrintOutput visitComment(Xml.Comment comment) {
+        prefix(comment);
+        out.append("<!--").append(comment.getText()).append("-->");
+        return suffix(comment);
     }
 
     @Override
-    public String visitProcessingInstruction(Xml.ProcessingInstruction pi) {
-        return fmt(pi, "<?" + pi.getName() + visit(pi.getAttributes()) +
-                pi.getBeforeTagDelimiterPrefix() + "?>");
+    public PrintOutput visitProcessingInstruction(Xml.ProcessingInstruction pi) {
+        prefix(pi);
+        out.append("<?").append(pi.getName());
+        visit(pi.getAttributes());
+        out.append(pi.getBeforeTagDelimiterPrefix()).append("?>");
+        return suffix(pi);
     }
 
     @Override
-    public String visitCharData(Xml.CharData charData) {
-        return fmt(charData, charData.isCdata() ?
-                "<![CDATA[" + charData.getText() + "]]>" :
-                charData.getText()
-        );
+    public PrintOutput visitCharData(Xml.CharData charData) {
+        prefix(charData);
+        if (charData.isCdata()) {
+            out.append("<![CDATA[").append(charData.getText()).append("]]>");
+        } else {
+            out.append(charData.getText());
+        }
+        return suffix(charData);
     }
 
     @Override
-    public String visitDocTypeDecl(Xml.DocTypeDecl docTypeDecl) {
-        return fmt(docTypeDecl, "<!DOCTYPE" + visit(docTypeDecl.getName()) + visit(docTypeDecl.getExternalId()) +
-                visit(docTypeDecl.getInternalSubset()) +
-                (docTypeDecl.getExternalSubsets() == null ?
-                        "" :
-                        fmt(docTypeDecl.getExternalSubsets(), "[" + visit(docTypeDecl.getExternalSubsets().getElements()) + "]")) +
-                ">");
+    public PrintOutput visitDocTypeDecl(Xml.DocTypeDecl docTypeDecl) {
+        prefix(docTypeDecl);
+        out.append("<!DOCTYPE");
+        visit(docTypeDecl.getName());
+        visit(docTypeDecl.getExternalId());
+        visit(docTypeDecl.getInternalSubset());
+        if (docTypeDecl.getExternalSubsets() != null) {
+            prefix(docTypeDecl.getExternalSubsets());
+            out.append('[');
+            visit(docTypeDecl.getExternalSubsets().getElements());
+            out.append(']');
+            suffix(docTypeDecl.getExternalSubsets());
+        }
+        out.append('>');
+        return suffix(docTypeDecl);
     }
 
     @Override
-    public String visitElement(Xml.DocTypeDecl.Element element) {
-        return fmt(element, "<!ELEMENT" + visit(element.getSubset()) + ">");
+    public PrintOutput visitElement(Xml.DocTypeDecl.Element element) {
+        prefix(element);
+        out.append("<!ELEMENT");
+        visit(element.getSubset());
+        out.append('>');
+        return suffix(element);
     }
 
     @Override
-    public String visitIdent(Xml.Ident ident) {
+    public PrintOutput visitIdent(Xml.Ident ident) {
         return fmt(ident, ident.getName());
     }
 
-    private String fmt(@Nullable Tree tree, @Nullable String code) {
-        return tree == null || code == null ? "" : tree.getPrefix() + code + tree.getSuffix();
+    private PrintOutput fmt(@Nullable Tree tree, @Nullable String code) {
+        return tree == null || code == null ? out : out.append(tree.getPrefix()).append(code).append(tree.getSuffix());
+    }
+
+    private void prefix(Tree tree) {
+        out.append(tree.getPrefix());
+    }
+
+    private PrintOutput suffix(Tree tree) {
+        return out.append(tree.getSuffix());
     }
 }
@@ -37,6 +37,7 @@ public class FindTag extends AbstractXmlSourceVisitor<Xml.Tag> {
     @Override
     public Xml.Tag visitTag(Xml.Tag tag) {
         if(xPathMatcher.matches(getCursor())) {
+            stopVisiting();
             return tag;
         }
         return super.visitTag(tag);
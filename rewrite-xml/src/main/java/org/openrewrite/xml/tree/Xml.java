@@ -19,9 +19,13 @@ import com.fasterxml.jackson.annotation.*;
 import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 import lombok.With;
 import lombok.experimental.FieldDefaults;
 import org.openrewrite.*;
+import org.openrewrite.internal.ContentHash;
+import org.openrewrite.internal.PrintOutput;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.xml.XmlSourceVisitor;
 import org.openrewrite.xml.internal.PrintXml;
@@ -39,7 +43,14 @@ import static org.openrewrite.Tree.randomId;
 public interface Xml extends Serializable, Tree {
     @Override
     default String print() {
-        return new PrintXml().visit(this);
+        StringBuilder out = new StringBuilder();
+        printTo(out);
+        return out.toString();
+    }
+
+    @Override
+    default void printTo(PrintOutput out) {
+        new PrintXml(out).visit(this);
     }
 
     @Override
@@ -74,6 +85,11 @@ public interface Xml extends Serializable, Tree {
         @With
         Formatting formatting;
 
+        @Getter(lazy = true)
+        @JsonIgnore
+        @ToString.Exclude
+        long contentHash = ContentHash.of(this);
+
         @Override
         public <R> R acceptXml(XmlSourceVisitor<R> v) {
             return v.visitDocument(this);
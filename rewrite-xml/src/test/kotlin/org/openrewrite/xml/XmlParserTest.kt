@@ -17,6 +17,11 @@ package org.openrewrite.xml
 
 import org.junit.jupiter.api.Assertions.assertEquals
 import org.junit.jupiter.api.Test
+import org.openrewrite.Change
+import org.openrewrite.internal.ContentHash
+import org.openrewrite.internal.OriginalSource
+import org.openrewrite.xml.tree.Xml
+import java.io.StringWriter
 
 class XmlParserTest: XmlParser() {
     @Test
@@ -60,4 +65,112 @@ class XmlParserTest: XmlParser() {
 
         assertEquals(xSource, x.printTrimmed())
     }
+
+    @Test
+    fun printToWriter() {
+        val x = parse("""
+            <beans>
+                ${(0 until 500).joinToString("\n") { "<bean id=\"bean$it\" class='Bean'/>" }}
+            </beans>
+        """.trimIndent())[0]
+
+        val writer = StringWriter()
+        x.printTo(writer)
+
+        assertEquals(x.print(), writer.toString())
+        assertEquals(ContentHash.of(x.print()), x.contentHash)
+    }
+
+    @Test
+    fun printChangedTagAmongUnchangedOnes() {
+        val originalSource = OriginalSource()
+        val x = XmlParser(originalSource).parse("""
+            <beans>
+                <bean id="first" class="org.openrewrite.SomeRatherLongClassName">first</bean>
+                <bean id="second" class="org.openrewrite.SomeRatherLongClassName">second</bean>
+                <bean id="third" class="org.openrewrite.SomeRatherLongClassName">third</bean>
+            </beans>
+        """.trimIndent())[0]
+
+        val content = x.root.content
+        val changed = x.withRoot(x.root.withContent(listOf(content[0], (content[1] as Xml.Tag).withValue("changed"), content[2])))
+
+        assertEquals(x.print().replace(">second<", ">changed<"), originalSource.print(changed))
+        assertEquals(changed.print(), originalSource.print(changed))
+    }
+
+    @Test
+    fun diffOnlyBetweenUnchangedTags() {
+        val originalSource = OriginalSource()
+        val x = XmlParser(originalSource).parse("""
+            <beans>
+                <bean id="first" class="org.openrewrite.SomeRatherLongClassName">first</bean>
+                <bean id="second" class="org.openrewrite.SomeRatherLongClassName">second</bean>
+                <bean id="third" class="org.openrewrite.SomeRatherLongClassName">third</bean>
+                <bean id="fourth" class="org.openrewrite.SomeRatherLongClassName">fourth</bean>
+                <bean id="fifth" class="org.openrewrite.SomeRatherLongClassName">fifth</bean>
+                <bean id="sixth" class="org.openrewrite.SomeRatherLongClassName">sixth</bean>
+                <bean id="seventh" class="org.openrewrite.SomeRatherLongClassName">seventh</bean>
+                <bean id="eighth" class="org.openrewrite.SomeRatherLongClassName">eighth</bean>
+            </beans>
+        """.trimIndent())[0]
+
+        val content = x.root.content
+        val changed = x.withRoot(x.root.withContent(content.mapIndexed { i, tag ->
+            if (i == 4) (tag as Xml.Tag).withValue("changed") else tag
+        }))
+
+        val change = Change(x, changed, setOf("xml.Fix"))
+        val diff = """
+            |diff --git a/unknown.xml b/unknown.xml
+            |index 1a7846a..087e397 100644
+            |--- a/unknown.xml
+            |+++ b/unknown.xml
+            |@@ -3,7 +3,7 @@ xml.Fix
+            |     <bean id="second" class="org.openrewrite.SomeRatherLongClassName">second</bean>
+            |     <bean id="third" class="org.openrewrite.SomeRatherLongClassName">third</bean>
+            |     <bean id="fourth" class="org.openrewrite.SomeRatherLongClassName">fourth</bean>
+            |-    <bean id="fifth" class="org.openrewrite.SomeRatherLongClassName">fifth</bean>
+            |+    <bean id="fifth" class="org.openrewrite.SomeRatherLongClassName">changed</bean>
+            |     <bean id="sixth" class="org.openrewrite.SomeRatherLongClassName">sixth</bean>
+            |     <bean id="seventh" class="org.openrewrite.SomeRatherLongClassName">seventh</bean>
+            |     <bean id="eighth" class="org.openrewrite.SomeRatherLongClassName">eighth</bean>
+            |
+        """.trimMargin()
+
+        assertEquals(diff, change.diff())
+        assertEquals(diff, change.diff(null, originalSource))
+    }
+
+    @Test
+    fun diffAroundATagRemovedNextToAnIdenticalOneIsTheWholeFileDiff() {
+        val originalSource = OriginalSource()
+        val x = XmlParser(originalSource).parse("""
+            <beans>
+                <bean id="same" class="org.openrewrite.SomeRatherLongClassName">same</bean>
+                <bean id="same" class="org.openrewrite.SomeRatherLongClassName">same</bean>
+            </beans>
+        """.trimIndent())[0]
+
+        // remove the first of two tags that print the same
+        val changed = x.withRoot(x.root.withContent(listOf(x.root.content[1])))
+        val change = Change(x, changed, setOf("xml.Fix"))
+
+        val diff = """
+            |diff --git a/unknown.xml b/unknown.xml
+            |index 5d24e66..1f64a85 100644
+            |--- a/unknown.xml
+            |+++ b/unknown.xml
+            |@@ -1,4 +1,3 @@ xml.Fix
+            | <beans>
+            |     <bean id="same" class="org.openrewrite.SomeRatherLongClassName">same</bean>
+            |-    <bean id="same" class="org.openrewrite.SomeRatherLongClassName">same</bean>
+            | </beans>
+            |\ No newline at end of file
+            |
+        """.trimMargin()
+
+        assertEquals(diff, change.diff())
+        assertEquals(diff, change.diff(null, originalSource))
+    }
 }
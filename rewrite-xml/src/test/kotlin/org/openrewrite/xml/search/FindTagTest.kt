@@ -15,10 +15,12 @@
  */
 package org.openrewrite.xml.search
 
+import org.junit.jupiter.api.Assertions.assertEquals
 import org.junit.jupiter.api.Assertions.assertNotNull
 import org.junit.jupiter.api.Assertions.assertNull
 import org.junit.jupiter.api.Test
 import org.openrewrite.xml.XmlParser
+import org.openrewrite.xml.tree.Xml
 
 class FindTagTest : XmlParser() {
     private val x = parse("""
@@ -36,4 +38,25 @@ class FindTagTest : XmlParser() {
         assertNotNull(FindTag("/dependencies/*").visit(x))
         assertNull(FindTag("/dependency/dne").visit(x))
     }
+
+    @Test
+    fun stopAtFirstMatch() {
+        val x = parse("""
+            <dependencies>
+                <dependency><artifactId>rewrite-core</artifactId></dependency>
+                <dependency><artifactId>rewrite-xml</artifactId></dependency>
+            </dependencies>
+        """.trimIndent())[0]
+
+        var visited = 0
+        val tag = object : FindTag("/dependencies/dependency") {
+            override fun visitTag(tag: Xml.Tag): Xml.Tag? {
+                visited++
+                return super.visitTag(tag)
+            }
+        }.visit(x)
+
+        assertEquals("rewrite-core", tag!!.getChildValue("artifactId").orElse(null))
+        assertEquals(2, visited)
+    }
 }
@@ -39,7 +39,7 @@ public class CoalesceProperties extends YamlRefactorVisitor {
                             .withValue(subEntry.getValue()));
 
                     andThen(new ShiftFormatLeft(subEntry.getValue(),
-                            formatter.wholeSourceIndent().getIndentToUse()));
+                            getFormatter().wholeSourceIndent().getIndentToUse()));
 
                     changed = true;
                 } else {
@@ -16,6 +16,7 @@
 package org.openrewrite.yaml;
 
 import org.openrewrite.Formatting;
+import org.openrewrite.internal.OriginalSource;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.yaml.tree.Yaml;
 import org.yaml.snakeyaml.events.Event;
@@ -27,6 +28,7 @@ import org.yaml.snakeyaml.scanner.Scanner;
 import org.yaml.snakeyaml.scanner.ScannerImpl;
 
 import java.io.*;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -40,11 +42,34 @@ import static org.openrewrite.Formatting.format;
 import static org.openrewrite.Tree.randomId;
 
 public class YamlParser implements org.openrewrite.Parser<Yaml.Documents> {
+    @Nullable
+    private final OriginalSource originalSource;
+
+    public YamlParser() {
+        this(null);
+    }
+
+    /**
+     * @param originalSource Retains the source of each document parsed, or {@code null} to retain nothing.
+     */
+    public YamlParser(@Nullable OriginalSource originalSource) {
+        this.originalSource = originalSource;
+    }
+
     @Override
     public List<Yaml.Documents> parse(List<Path> sourceFiles, @Nullable Path relativeTo) {
         return sourceFiles.stream().map(sourceFile -> {
+            Path path = relativeTo == null ? sourceFile : relativeTo.relativize(sourceFile);
+            if (originalSource != null) {
+                try {
+                    return parseFromSource(path, new String(Files.readAllBytes(sourceFile)));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
             try (FileInputStream fis = new FileInputStream(sourceFile.toFile())) {
-                return parseFromInput(relativeTo == null ? sourceFile : relativeTo.relativize(sourceFile), fis);
+                return parseFromInput(path, fis);
             } catch (IOException e) {
                 throw new UncheckedIOException(e);
             }
@@ -54,11 +79,15 @@ public class YamlParser implements org.openrewrite.Parser<Yaml.Documents> {
     @Override
     public List<Yaml.Documents> parse(List<String> sourceFiles) {
         return sourceFiles.stream()
-            .map(sourceFile -> parseFromInput(Paths.get("unknown.properties"),
-                    new ByteArrayInputStream(sourceFile.getBytes())))
+            .map(sourceFile -> parseFromSource(Paths.get("unknown.properties"), sourceFile))
             .collect(toList());
     }
 
+    private Yaml.Documents parseFromSource(Path sourceFile, String source) {
+        Yaml.Documents parsed = parseFromInput(sourceFile, new ByteArrayInputStream(source.getBytes()));
+        return originalSource == null ? parsed : originalSource.retain(parsed, source);
+    }
+
     private Yaml.Documents parseFromInput(Path sourceFile, InputStream source) {
         try (FormatPreservingReader reader = new FormatPreservingReader(new InputStreamReader(source))) {
             StreamReader streamReader = new StreamReader(reader);
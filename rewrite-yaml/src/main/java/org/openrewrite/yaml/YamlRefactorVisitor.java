@@ -22,11 +22,19 @@ import org.openrewrite.yaml.tree.Yaml;
 public class YamlRefactorVisitor extends AbstractRefactorVisitor<Yaml>
         implements YamlSourceVisitor<Yaml> {
 
-    protected Formatter formatter;
+    // per thread, because several threads may run this visitor over different documents at once
+    private final ThreadLocal<Formatter> formatter = new ThreadLocal<>();
+
+    /**
+     * @return A formatter for the source being visited on this thread.
+     */
+    protected Formatter getFormatter() {
+        return formatter.get();
+    }
 
     @Override
     public Yaml visitDocuments(Yaml.Documents documents) {
-        formatter = new Formatter(documents);
+        formatter.set(new Formatter(documents));
         return documents.withDocuments(refactor(documents.getDocuments()));
     }
 
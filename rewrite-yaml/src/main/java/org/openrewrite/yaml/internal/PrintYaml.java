@@ -16,63 +16,91 @@
 package org.openrewrite.yaml.internal;
 
 import org.openrewrite.Tree;
+import org.openrewrite.internal.PrintOutput;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.yaml.AbstractYamlSourceVisitor;
 import org.openrewrite.yaml.YamlSourceVisitor;
 import org.openrewrite.yaml.tree.Yaml;
 
-public class PrintYaml extends AbstractYamlSourceVisitor<String> {
+public class PrintYaml extends AbstractYamlSourceVisitor<PrintOutput> {
+    private final PrintOutput out;
+
+    public PrintYaml(PrintOutput out) {
+        this.out = out;
+        setBudgetingOff();
+    }
+
+    @Override
+    public PrintOutput defaultTo(Tree t) {
+        return out;
+    }
+
     @Override
-    public String defaultTo(Tree t) {
-        return "";
+    public PrintOutput reduce(PrintOutput r1, PrintOutput r2) {
+        return out;
     }
 
     @Override
-    public String reduce(String r1, String r2) {
-        return r1 + r2;
+    public PrintOutput visit(@Nullable Tree tree) {
+        return out.print(tree, super::visit);
     }
 
     @Override
-    public String visitDocument(Yaml.Document document) {
-        return fmt(document, (document.isExplicit() ? "---" : "") + visit(document.getBlocks()));
+    public PrintOutput visitDocument(Yaml.Document document) {
+        prefix(document);
+        if (document.isExplicit()) {
+            out.append("---");
+        }
+        visit(document.getBlocks());
+        return suffix(document);
     }
 
     @Override
-    public String visitSequenceEntry(Yaml.Sequence.Entry entry) {
-        return fmt(entry, "-" + visit(entry.getBlock()));
+    public PrintOutput visitSequenceEntry(Yaml.Sequence.Entry entry) {
+        prefix(entry);
+        out.append('-');
+        visit(entry.getBlock());
+        return suffix(entry);
     }
 
     @Override
-    public String visitMappingEntry(Yaml.Mapping.Entry entry) {
-        return fmt(entry, visit(entry.getKey()) + ":" + visit(entry.getValue()));
+    public PrintOutput visitMappingEntry(Yaml.Mapping.Entry entry) {
+        prefix(entry);
+        visit(entry.getKey());
+        out.append(':');
+        visit(entry.getValue());
+        return suffix(entry);
     }
 
     @Override
-    public String visitScalar(Yaml.Scalar scalar) {
-        String value;
+    public PrintOutput visitScalar(Yaml.Scalar scalar) {
+        prefix(scalar);
         switch(scalar.getStyle()) {
             case DOUBLE_QUOTED:
-                value = "\"" + scalar.getValue() + "\"";
+                out.append('"').append(scalar.getValue()).append('"');
                 break;
             case SINGLE_QUOTED:
-                value = "'" + scalar.getValue() + "'";
+                out.append('\'').append(scalar.getValue()).append('\'');
                 break;
             case LITERAL:
-                value = "|" + scalar.getValue();
+                out.append('|').append(scalar.getValue());
                 break;
             case FOLDED:
-                value = ">" + scalar.getValue();
+                out.append('>').append(scalar.getValue());
                 break;
             case PLAIN:
             default:
-                value = scalar.getValue();
+                out.append(scalar.getValue());
                 break;
         }
+        return suffix(scalar);
+    }
 
-        return fmt(scalar, value);
+    private void prefix(Tree tree) {
+        out.append(tree.getPrefix());
     }
 
-    private String fmt(@Nullable Tree tree, @Nullable String code) {
-        return tree == null || code == null ? "" : tree.getPrefix() + code + tree.getSuffix();
+    private PrintOutput suffix(Tree tree) {
+        return out.append(tree.getSuffix());
     }
 }
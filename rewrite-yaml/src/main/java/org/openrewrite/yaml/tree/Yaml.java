@@ -16,14 +16,19 @@
 package org.openrewrite.yaml.tree;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 import lombok.With;
 import lombok.experimental.FieldDefaults;
 import org.openrewrite.*;
+import org.openrewrite.internal.ContentHash;
+import org.openrewrite.internal.PrintOutput;
 import org.openrewrite.internal.StringUtils;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.yaml.YamlSourceVisitor;
@@ -41,7 +46,14 @@ import static org.openrewrite.Tree.randomId;
 public interface Yaml extends Serializable, Tree {
     @Override
     default String print() {
-        return new PrintYaml().visit(this);
+        StringBuilder out = new StringBuilder();
+        printTo(out);
+        return out.toString();
+    }
+
+    @Override
+    default void printTo(PrintOutput out) {
+        new PrintYaml(out).visit(this);
     }
 
     @SuppressWarnings("StatementWithEmptyBody")
@@ -92,6 +104,11 @@ public interface Yaml extends Serializable, Tree {
         @With
         Formatting formatting;
 
+        @Getter(lazy = true)
+        @JsonIgnore
+        @ToString.Exclude
+        long contentHash = ContentHash.of(this);
+
         @Override
         public <R> R acceptYaml(YamlSourceVisitor<R> v) {
             return v.visitDocuments(this);